@@ -0,0 +1,102 @@
+package com.literalura.benchmark;
+
+import com.literalura.LiteraluraApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contexto de Spring de la aplicación sobre una base PostgreSQL para los
+ * benchmarks que tocan la base de datos
+ *
+ * Por defecto arranca un contenedor con Testcontainers (necesita Docker).
+ * Para usar una base existente se definen las variables de entorno
+ * LITERALURA_BENCHMARK_JDBC_URL, LITERALURA_BENCHMARK_USUARIO y
+ * LITERALURA_BENCHMARK_PASSWORD (o las propiedades literalura.benchmark.jdbc-url,
+ * .usuario y .password). Debe ser una base dedicada: la carga de datos crea
+ * autores y libros.
+ */
+public final class BaseDatos implements AutoCloseable {
+
+    static final String IMAGEN_POSTGRES = "postgres:16-alpine";
+
+    private final PostgreSQLContainer<?> contenedor;
+    private final ConfigurableApplicationContext contexto;
+
+    private BaseDatos(PostgreSQLContainer<?> contenedor, ConfigurableApplicationContext contexto) {
+        this.contenedor = contenedor;
+        this.contexto = contexto;
+    }
+
+    /**
+     * Arranca la base de datos (si hace falta) y la aplicación sin interfaz web
+     * @param propiedades Propiedades adicionales en formato clave=valor
+     * @return Base de datos con el contexto listo
+     */
+    public static BaseDatos arrancar(String... propiedades) {
+        String url = configuracion("LITERALURA_BENCHMARK_JDBC_URL", "literalura.benchmark.jdbc-url");
+        String usuario = configuracion("LITERALURA_BENCHMARK_USUARIO", "literalura.benchmark.usuario");
+        String password = configuracion("LITERALURA_BENCHMARK_PASSWORD", "literalura.benchmark.password");
+
+        PostgreSQLContainer<?> contenedor = null;
+        if (url == null) {
+            contenedor = new PostgreSQLContainer<>(IMAGEN_POSTGRES);
+            contenedor.start();
+            url = contenedor.getJdbcUrl();
+            usuario = contenedor.getUsername();
+            password = contenedor.getPassword();
+        }
+
+        List<String> todas = new ArrayList<>(List.of(
+                "spring.datasource.url=" + url,
+                "spring.datasource.username=" + (usuario != null ? usuario : ""),
+                "spring.datasource.password=" + (password != null ? password : ""),
+                "spring.jpa.hibernate.ddl-auto=update",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN"));
+        todas.addAll(List.of(propiedades));
+
+        try {
+            ConfigurableApplicationContext contexto = new SpringApplicationBuilder(LiteraluraApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(todas.toArray(String[]::new))
+                    .run();
+            return new BaseDatos(contenedor, contexto);
+        } catch (RuntimeException e) {
+            if (contenedor != null) {
+                contenedor.stop();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Variable de entorno o, si no existe, propiedad del sistema
+     */
+    static String configuracion(String variable, String propiedad) {
+        String valor = System.getenv(variable);
+        if (valor == null || valor.isBlank()) {
+            valor = System.getProperty(propiedad);
+        }
+        return valor == null || valor.isBlank() ? null : valor;
+    }
+
+    public <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+
+    @Override
+    public void close() {
+        try {
+            contexto.close();
+        } finally {
+            if (contenedor != null) {
+                contenedor.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.literalura.benchmark;
+
+import com.literalura.config.JacksonConfig;
+import com.literalura.model.dto.AutorResumen;
+import com.literalura.model.dto.LibroDTO;
+import com.literalura.model.dto.LibroResumen;
+import com.literalura.model.dto.RespuestaAPI;
+import com.literalura.model.entity.Autor;
+import com.literalura.model.entity.Libro;
+import com.literalura.repository.LibroRepository;
+import com.literalura.service.AutorService;
+import com.literalura.service.ConvierteDatos;
+import com.literalura.service.IndiceInvertidoLibros;
+import com.literalura.service.IngestaCatalogoService;
+import com.literalura.service.LibroService;
+import com.literalura.service.ResolutorAutores;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas de búsqueda sobre el catálogo cargado desde las páginas grabadas
+ *
+ * Cada libro grabado se carga {@code copias} veces (gutendx_id negativos,
+ * "vol. N" en el título) para tener un volumen de datos razonable; los
+ * libros cargados se borran al terminar. La última consulta tiene una
+ * errata para medir la búsqueda aproximada por trigramas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BusquedaBenchmark {
+
+    private static final int RESULTADOS = 20;
+    private static final long DESPLAZAMIENTO_COPIA = 1_000_000L;
+
+    @Param({"50"})
+    public int copias;
+
+    @Param({"war", "adventures huckleberry", "metamorfosis"})
+    public String consulta;
+
+    private BaseDatos baseDatos;
+    private LibroService libroService;
+    private AutorService autorService;
+    private LibroRepository libroRepository;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        baseDatos = BaseDatos.arrancar("literalura.indice.habilitado=true");
+        libroService = baseDatos.bean(LibroService.class);
+        autorService = baseDatos.bean(AutorService.class);
+        libroRepository = baseDatos.bean(LibroRepository.class);
+
+        borrarDatos();
+        cargarDatos();
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() {
+        try {
+            borrarDatos();
+        } finally {
+            baseDatos.close();
+        }
+    }
+
+    @Benchmark
+    public Page<Libro> textoCompleto() {
+        return libroService.buscarLibrosPorPalabraClave(consulta, PageRequest.of(0, RESULTADOS));
+    }
+
+    @Benchmark
+    public List<Libro> indiceEnMemoria() {
+        return libroService.buscarEnIndice(consulta, RESULTADOS);
+    }
+
+    @Benchmark
+    public List<LibroResumen> resumenesPorTitulo() {
+        return libroRepository.findResumenesPorTitulo(consulta);
+    }
+
+    @Benchmark
+    public List<LibroResumen> masDescargados() {
+        return libroRepository.findResumenesMasDescargados(PageRequest.of(0, RESULTADOS));
+    }
+
+    @Benchmark
+    public List<AutorResumen> autoresVivos() {
+        return autorService.buscarAutoresVivosEnAnio(1850);
+    }
+
+    /**
+     * Carga las copias como lo hace la ingesta: autores resueltos en lote,
+     * upsert por gutendx_id e indexación al confirmar
+     */
+    private void cargarDatos() {
+        ConvierteDatos conversor = new ConvierteDatos(new JacksonConfig().objectMapper());
+        List<LibroDTO> validos = new ArrayList<>();
+        for (String pagina : Fixtures.paginasComoTexto()) {
+            for (LibroDTO dto : conversor.obtenerDatos(pagina, RespuestaAPI.class).getResultados()) {
+                if (dto.esValido() && dto.getId() != null && dto.getPrimerAutor().esValido()) {
+                    validos.add(dto);
+                }
+            }
+        }
+
+        ResolutorAutores resolutorAutores = baseDatos.bean(ResolutorAutores.class);
+        IndiceInvertidoLibros indiceLibros = baseDatos.bean(IndiceInvertidoLibros.class);
+        TransactionTemplate transaccion = new TransactionTemplate(baseDatos.bean(PlatformTransactionManager.class));
+        for (int copia = 0; copia < copias; copia++) {
+            int numero = copia;
+            transaccion.executeWithoutResult(status -> {
+                Map<String, Autor> autores = resolutorAutores.resolverAutores(
+                        validos.stream().map(LibroDTO::getPrimerAutor).toList());
+                List<Libro> libros = new ArrayList<>(validos.size());
+                for (LibroDTO dto : validos) {
+                    Autor autor = autores.get(ResolutorAutores.normalizar(dto.getPrimerAutor().getNombreLimpio()));
+                    Libro libro = IngestaCatalogoService.crearLibroDesdeDto(dto, autor);
+                    libro.setGutendxId(-(numero * DESPLAZAMIENTO_COPIA + dto.getId()));
+                    if (numero > 0) {
+                        libro.setTitulo(libro.getTitulo() + " vol. " + (numero + 1));
+                    }
+                    libros.add(libro);
+                }
+                libroRepository.upsertPorGutendxId(libros);
+                indiceLibros.indexarAlConfirmar(libros.stream()
+                        .filter(libro -> libro.getId() != null)
+                        .map(libro -> IndiceInvertidoLibros.Documento.de(libro, null))
+                        .toList());
+            });
+        }
+    }
+
+    private void borrarDatos() {
+        baseDatos.bean(JdbcTemplate.class).update("DELETE FROM libros WHERE gutendx_id < 0");
+    }
+}
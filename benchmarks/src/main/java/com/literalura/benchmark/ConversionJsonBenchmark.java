@@ -0,0 +1,95 @@
+package com.literalura.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.literalura.config.JacksonConfig;
+import com.literalura.model.dto.RespuestaAPI;
+import com.literalura.service.ConvierteDatos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión de páginas de Gutendx grabadas a RespuestaAPI
+ *
+ * - porDefecto: ObjectMapper sin configurar y readValue(json, clase),
+ *   como hacía ConvierteDatos antes de usar el mapper compartido
+ * - convierteDatos: ObjectReader en caché con todos los campos
+ * - sinFormatos: la conversión que usa la ingesta en paralelo
+ * - enStreaming: lectura libro a libro desde un flujo, como la ingesta secuencial
+ *
+ * Cada operación convierte una página (32 libros).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionJsonBenchmark {
+
+    @Param({"false", "true"})
+    public boolean blackbird;
+
+    private List<String> paginas;
+    private List<byte[]> paginasEnBytes;
+    private ObjectMapper porDefecto;
+    private ConvierteDatos conversor;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        paginas = Fixtures.paginasComoTexto();
+        paginasEnBytes = Fixtures.paginas();
+
+        porDefecto = new ObjectMapper();
+        ObjectMapper mapper = new JacksonConfig().objectMapper();
+        if (blackbird) {
+            porDefecto.registerModule(new BlackbirdModule());
+            mapper.registerModule(new BlackbirdModule());
+        }
+        conversor = new ConvierteDatos(mapper);
+    }
+
+    private int siguientePagina() {
+        int actual = siguiente;
+        siguiente = (actual + 1) % paginas.size();
+        return actual;
+    }
+
+    @Benchmark
+    public RespuestaAPI porDefecto() throws IOException {
+        return porDefecto.readValue(paginas.get(siguientePagina()), RespuestaAPI.class);
+    }
+
+    @Benchmark
+    public RespuestaAPI convierteDatos() {
+        return conversor.obtenerDatos(paginas.get(siguientePagina()), RespuestaAPI.class);
+    }
+
+    @Benchmark
+    public RespuestaAPI sinFormatos() {
+        return conversor.obtenerPaginaSinFormatos(paginas.get(siguientePagina()));
+    }
+
+    @Benchmark
+    public RespuestaAPI enStreaming(Blackhole agujero) {
+        return conversor.leerPaginaEnStreaming(
+                new ByteArrayInputStream(paginasEnBytes.get(siguientePagina())), agujero::consume);
+    }
+}
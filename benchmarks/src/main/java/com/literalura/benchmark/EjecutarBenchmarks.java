@@ -0,0 +1,78 @@
+package com.literalura.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ejecuta todos los benchmarks y guarda los resultados en JSON en
+ * target/jmh/<etiqueta>.json, para comparar dos commits con cualquier
+ * visor de resultados de JMH
+ *
+ * La etiqueta es la propiedad literalura.benchmark.etiqueta o, si está
+ * vacía, el commit actual (git rev-parse --short HEAD). Con la propiedad
+ * literalura.benchmark.incluir se filtran los benchmarks por expresión regular.
+ */
+public final class EjecutarBenchmarks {
+
+    static final String PREFIJO_PROPIEDADES = "literalura.benchmark.";
+
+    private EjecutarBenchmarks() {}
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String etiqueta = BaseDatos.configuracion("LITERALURA_BENCHMARK_ETIQUETA", PREFIJO_PROPIEDADES + "etiqueta");
+        if (etiqueta == null) {
+            etiqueta = commitActual();
+        }
+        String incluir = System.getProperty(PREFIJO_PROPIEDADES + "incluir",
+                EjecutarBenchmarks.class.getPackageName() + ".*Benchmark");
+
+        Path resultados = Path.of("target", "jmh", etiqueta + ".json");
+        Files.createDirectories(resultados.getParent());
+
+        ChainedOptionsBuilder opciones = new OptionsBuilder()
+                .include(incluir)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultados.toString());
+
+        // Los procesos de JMH heredan el entorno pero no las propiedades del sistema
+        System.getProperties().stringPropertyNames().stream()
+                .filter(nombre -> nombre.startsWith(PREFIJO_PROPIEDADES))
+                .forEach(nombre -> opciones.jvmArgsAppend("-D" + nombre + "=" + System.getProperty(nombre)));
+
+        new Runner(opciones.build()).run();
+        System.out.println("Resultados guardados en " + resultados.toAbsolutePath());
+    }
+
+    /**
+     * Commit actual abreviado, o "local" si no se puede obtener
+     */
+    private static String commitActual() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD")
+                    .redirectErrorStream(true)
+                    .start();
+            String salida;
+            try (InputStream entrada = git.getInputStream()) {
+                salida = new String(entrada.readAllBytes(), StandardCharsets.UTF_8).trim();
+            }
+            if (git.waitFor(10, TimeUnit.SECONDS) && git.exitValue() == 0 && !salida.isEmpty()) {
+                return salida;
+            }
+        } catch (IOException e) {
+            System.err.println("No se pudo obtener el commit actual: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "local";
+    }
+}
@@ -0,0 +1,53 @@
+package com.literalura.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Páginas de Gutendx grabadas en src/main/resources/fixtures
+ *
+ * Se leen en orden (gutendx-pagina-1.json, gutendx-pagina-2.json...) hasta
+ * la primera que falte. GrabarFixtures las vuelve a grabar desde la API.
+ */
+public final class Fixtures {
+
+    static final String DIRECTORIO = "fixtures/";
+    static final String PATRON = "gutendx-pagina-%d.json";
+
+    private Fixtures() {}
+
+    /**
+     * Cuerpos de todas las páginas grabadas
+     * @return Bytes UTF-8 de cada página, en orden
+     */
+    public static List<byte[]> paginas() {
+        List<byte[]> paginas = new ArrayList<>();
+        for (int numero = 1; ; numero++) {
+            String recurso = DIRECTORIO + String.format(PATRON, numero);
+            try (InputStream entrada = Fixtures.class.getClassLoader().getResourceAsStream(recurso)) {
+                if (entrada == null) {
+                    break;
+                }
+                paginas.add(entrada.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error al leer la página grabada " + recurso, e);
+            }
+        }
+        if (paginas.isEmpty()) {
+            throw new IllegalStateException("No hay páginas grabadas en " + DIRECTORIO);
+        }
+        return paginas;
+    }
+
+    /**
+     * Cuerpos de todas las páginas grabadas como texto
+     * @return JSON de cada página, en orden
+     */
+    public static List<String> paginasComoTexto() {
+        return paginas().stream().map(bytes -> new String(bytes, StandardCharsets.UTF_8)).toList();
+    }
+}
@@ -0,0 +1,53 @@
+package com.literalura.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Graba páginas de Gutendx en src/main/resources/fixtures para que los
+ * benchmarks no dependan de la red
+ *
+ * Argumentos opcionales: cantidad de páginas (3 por defecto) y URL base
+ * (https://gutendx.com/books/ por defecto, como la aplicación). Hay que
+ * ejecutarlo desde el directorio benchmarks.
+ */
+public final class GrabarFixtures {
+
+    static final String URL_POR_DEFECTO = "https://gutendx.com/books/";
+    static final Path DESTINO = Path.of("src", "main", "resources", Fixtures.DIRECTORIO);
+
+    private GrabarFixtures() {}
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int paginas = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        String urlBase = args.length > 1 ? args[1] : URL_POR_DEFECTO;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        Files.createDirectories(DESTINO);
+
+        for (int numero = 1; numero <= paginas; numero++) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(urlBase + (urlBase.contains("?") ? "&" : "?") + "page=" + numero))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            HttpResponse<byte[]> respuesta = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (respuesta.statusCode() != 200) {
+                throw new RuntimeException("Error al grabar la página " + numero + ": HTTP " + respuesta.statusCode());
+            }
+
+            Path fichero = DESTINO.resolve(String.format(Fixtures.PATRON, numero));
+            Files.write(fichero, respuesta.body());
+            System.out.println("Página " + numero + " grabada en " + fichero);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.literalura.benchmark;
+
+import com.literalura.config.JacksonConfig;
+import com.literalura.model.dto.LibroDTO;
+import com.literalura.model.dto.RespuestaAPI;
+import com.literalura.model.entity.Autor;
+import com.literalura.service.ConvierteDatos;
+import com.literalura.service.IngestaCatalogoService;
+import com.literalura.service.ResolutorAutores;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeo de los libros de una página a entidades, sin base de datos
+ *
+ * Reproduce lo que hace IngestaCatalogoService.guardarLibros antes del
+ * upsert: filtrar los DTO válidos, normalizar el nombre del autor para
+ * buscarlo entre los ya resueltos y crear el Libro. Cada operación mapea
+ * todos los libros de las páginas grabadas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapeoLibrosBenchmark {
+
+    private List<LibroDTO> libros;
+    private Map<String, Autor> autores;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        ConvierteDatos conversor = new ConvierteDatos(new JacksonConfig().objectMapper());
+        libros = new ArrayList<>();
+        for (String pagina : Fixtures.paginasComoTexto()) {
+            libros.addAll(conversor.obtenerDatos(pagina, RespuestaAPI.class).getResultados());
+        }
+
+        // Autores ya resueltos, como los devuelve ResolutorAutores.resolverAutores
+        autores = new HashMap<>();
+        for (LibroDTO libro : libros) {
+            if (libro.getPrimerAutor() != null) {
+                String nombre = libro.getPrimerAutor().getNombreLimpio();
+                autores.computeIfAbsent(ResolutorAutores.normalizar(nombre), n -> new Autor(nombre,
+                        libro.getPrimerAutor().getAnoNacimiento(), libro.getPrimerAutor().getAnoFallecimiento()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void mapearLibros(Blackhole agujero) {
+        for (LibroDTO dto : libros) {
+            if (!dto.esValido() || dto.getId() == null || !dto.getPrimerAutor().esValido()) {
+                continue;
+            }
+            Autor autor = autores.get(ResolutorAutores.normalizar(dto.getPrimerAutor().getNombreLimpio()));
+            agujero.consume(IngestaCatalogoService.crearLibroDesdeDto(dto, autor));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.literalura.benchmark;
+
+import com.literalura.model.Idioma;
+import com.literalura.model.entity.Autor;
+import com.literalura.model.entity.Libro;
+import com.literalura.repository.AutorRepository;
+import com.literalura.repository.LibroRepository;
+import com.literalura.repository.LibroUpsertRepository.ResultadoUpsert;
+import com.literalura.service.LibroService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritura de libros en PostgreSQL, en filas por segundo
+ *
+ * - filaAFila: línea base con un INSERT ... RETURNING id por fila, como hacía
+ *   Hibernate con GenerationType.IDENTITY (un viaje por fila, sin lotes JDBC)
+ * - upsertNuevos: upsert por gutendx_id de libros que no existen (como una página nueva)
+ * - upsertExistentes: upsert de libros que ya existen con otras descargas
+ *   (como repetir una página o reanudar la ingesta)
+ * - guardarEnLotes: LibroService.guardarLibrosEnLotes con autores sin guardar, uno
+ *   de ellos ya existente, que se resuelven por nombre antes del upsert
+ * - persistirEnLotes: LibroService.guardarLibrosEnLotes con libros sin gutendx_id,
+ *   que se persisten con ids de secuencia y lotes JDBC
+ *
+ * Cada operación escribe LIBROS filas y cuenta como LIBROS operaciones. Los libros
+ * usan gutendx_id negativos y autores propios, y se borran al terminar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(PersistenciaBenchmark.LIBROS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PersistenciaBenchmark {
+
+    static final int LIBROS = 500;
+
+    private static final String NOMBRE_AUTOR = "Autor Benchmark Persistencia";
+    private static final int AUTORES_POR_OPERACION = 10;
+
+    private static final String INSERTAR_FILA =
+            "INSERT INTO libros (id, titulo, idioma, numero_descargas, autor_id, gutendx_id) " +
+            "VALUES (nextval('libros_seq'), ?, ?, ?, ?, ?) RETURNING id";
+
+    private BaseDatos baseDatos;
+    private LibroRepository libroRepository;
+    private LibroService libroService;
+    private TransactionTemplate transaccion;
+    private JdbcTemplate jdbc;
+    private Autor autor;
+    private List<Libro> existentes;
+    private long siguienteGutendxId;
+    private long descargas;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        baseDatos = BaseDatos.arrancar();
+        libroRepository = baseDatos.bean(LibroRepository.class);
+        libroService = baseDatos.bean(LibroService.class);
+        transaccion = new TransactionTemplate(baseDatos.bean(PlatformTransactionManager.class));
+        jdbc = baseDatos.bean(JdbcTemplate.class);
+
+        borrarDatos();
+        autor = baseDatos.bean(AutorRepository.class).save(new Autor(NOMBRE_AUTOR, 1900, 1980));
+
+        // Libros que upsertExistentes vuelve a escribir en cada operación
+        siguienteGutendxId = -1;
+        existentes = crearLibros("existente");
+        transaccion.executeWithoutResult(status -> libroRepository.upsertPorGutendxId(existentes));
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() {
+        try {
+            borrarDatos();
+        } finally {
+            baseDatos.close();
+        }
+    }
+
+    @Benchmark
+    public int filaAFila() {
+        List<Libro> nuevos = crearLibros("fila");
+        Integer guardados = transaccion.execute(status -> {
+            for (Libro libro : nuevos) {
+                libro.setId(jdbc.queryForObject(INSERTAR_FILA, Long.class, libro.getTitulo(),
+                        libro.getIdioma().getId(), libro.getNumeroDescargas(), autor.getId(), libro.getGutendxId()));
+            }
+            return nuevos.size();
+        });
+        return guardados != null ? guardados : 0;
+    }
+
+    @Benchmark
+    public List<ResultadoUpsert> upsertNuevos() {
+        List<Libro> nuevos = crearLibros("nuevo");
+        return transaccion.execute(status -> libroRepository.upsertPorGutendxId(nuevos));
+    }
+
+    @Benchmark
+    public List<ResultadoUpsert> upsertExistentes() {
+        // Descargas distintas en cada operación para que todas las filas cambien
+        descargas++;
+        List<Libro> actualizados = new ArrayList<>(existentes.size());
+        for (Libro libro : existentes) {
+            actualizados.add(new Libro(libro.getTitulo(), libro.getIdioma(), descargas, autor, libro.getGutendxId()));
+        }
+        return transaccion.execute(status -> libroRepository.upsertPorGutendxId(actualizados));
+    }
+
+    @Benchmark
+    public int guardarEnLotes() {
+        List<Libro> nuevos = crearLibros("lote");
+        asignarAutoresSinGuardar(nuevos);
+        return libroService.guardarLibrosEnLotes(nuevos);
+    }
+
+    @Benchmark
+    public int persistirEnLotes() {
+        List<Libro> nuevos = crearLibros("persistido");
+        nuevos.forEach(libro -> libro.setGutendxId(null));
+        asignarAutoresSinGuardar(nuevos);
+        return libroService.guardarLibrosEnLotes(nuevos);
+    }
+
+    private List<Libro> crearLibros(String prefijo) {
+        List<Libro> nuevos = new ArrayList<>(LIBROS);
+        for (int i = 0; i < LIBROS; i++) {
+            long gutendxId = siguienteGutendxId--;
+            nuevos.add(new Libro(prefijo + " " + -gutendxId, Idioma.ES, (long) i, autor, gutendxId));
+        }
+        return nuevos;
+    }
+
+    /**
+     * Autores nuevos (sin id) como los que llegan de la API; el primero tiene el
+     * nombre del autor ya guardado, así que se resuelve al existente
+     */
+    private void asignarAutoresSinGuardar(List<Libro> nuevos) {
+        List<Autor> autores = new ArrayList<>(AUTORES_POR_OPERACION);
+        autores.add(new Autor(NOMBRE_AUTOR, 1900, 1980));
+        for (int i = 1; i < AUTORES_POR_OPERACION; i++) {
+            autores.add(new Autor(NOMBRE_AUTOR + " " + siguienteGutendxId + "-" + i, 1900, 1980));
+        }
+        for (int i = 0; i < nuevos.size(); i++) {
+            nuevos.get(i).setAutor(autores.get(i % autores.size()));
+        }
+    }
+
+    private void borrarDatos() {
+        jdbc.update("DELETE FROM libros WHERE autor_id IN (SELECT id FROM autores WHERE nombre LIKE ?)", NOMBRE_AUTOR + "%");
+        jdbc.update("DELETE FROM autores WHERE nombre LIKE ?", NOMBRE_AUTOR + "%");
+    }
+}
@@ -1,18 +1,26 @@
 package com.literalura.config;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import javax.net.ssl.SSLContext;
+import java.lang.reflect.Method;
 import java.net.http.HttpClient;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Configuración para el cliente HTTP y la API externa
  *
  * Esta clase configura:
- * - HttpClient para realizar solicitudes a la API Gutendx
+ * - HttpClient compartido para realizar solicitudes a la API Gutendx
  * - Timeouts y configuraciones de red
  * - Headers por defecto
+ * - Executor para las peticiones asíncronas
  */
 @Configuration
 public class ApiConfig {
@@ -26,18 +34,50 @@ public class ApiConfig {
     @Value("${literalura.api.user-agent:LiterAlura/1.0}")
     private String userAgent;
 
+    @Value("${literalura.api.max-peticiones-por-host:64}")
+    private int maxPeticionesPorHost;
+
     /**
-     * Configura HttpClient para realizar solicitudes HTTP
+     * Configura el HttpClient compartido para realizar solicitudes HTTP
+     *
+     * Prefiere HTTP/2 (una conexión multiplexada por host, con vuelta a
+     * HTTP/1.1 si el servidor no lo admite), ejecuta las respuestas en el
+     * executor de la API y cuenta las conexiones TLS en MetricasClienteHttp.
+     * El tiempo que las conexiones inactivas siguen abiertas para reutilizarlas
+     * es global de la JVM y solo se lee al arrancar: se fija con
+     * -Djdk.httpclient.keepalive.timeout=&lt;segundos&gt; (spring-boot:run usa 300).
      *
      * @return HttpClient configurado con timeouts apropiados
      */
     @Bean
-    public HttpClient httpClient() {
+    public HttpClient httpClient(@Qualifier("apiExecutor") ExecutorService apiExecutor,
+                                 MetricasClienteHttp metricasClienteHttp) {
+        SSLContext sslContext;
+        try {
+            sslContext = SSLContext.getDefault();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Error al crear el contexto SSL: " + e.getMessage(), e);
+        }
+
         return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
                 .connectTimeout(Duration.ofMillis(timeoutMillis))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(apiExecutor)
+                .sslContext(metricasClienteHttp.medir(sslContext))
                 .build();
     }
 
+    /**
+     * Métricas de conexiones y respuestas del HttpClient compartido
+     *
+     * @return Recolector de métricas del cliente
+     */
+    @Bean
+    public MetricasClienteHttp metricasClienteHttp() {
+        return new MetricasClienteHttp();
+    }
+
     /**
      * Proporciona la URL base de la API Gutendx
      *
@@ -67,4 +107,36 @@ public class ApiConfig {
     public Duration getTimeout() {
         return Duration.ofMillis(timeoutMillis);
     }
-}
\ No newline at end of file
+
+    /**
+     * Proporciona el máximo de peticiones simultáneas a un mismo host
+     *
+     * @return Límite de peticiones en curso por host
+     */
+    @Bean("apiMaxPeticionesPorHost")
+    public Integer getMaxPeticionesPorHost() {
+        return maxPeticionesPorHost;
+    }
+
+    /**
+     * Executor para las peticiones asíncronas a la API.
+     * Usa hilos virtuales cuando la JVM los soporta (Java 21+) y,
+     * si no, un pool de hilos daemon que crece bajo demanda.
+     *
+     * @return ExecutorService para el cliente HTTP
+     */
+    @Bean(name = "apiExecutor", destroyMethod = "shutdown")
+    public ExecutorService apiExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger contador = new AtomicInteger();
+            return Executors.newCachedThreadPool(tarea -> {
+                Thread hilo = new Thread(tarea, "api-http-" + contador.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.literalura.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+
+/**
+ * Configuración de la caché de segundo nivel de Hibernate (JCache + Ehcache)
+ *
+ * Esta clase configura:
+ * - Regiones para las entidades Libro y Autor y la colección Autor.libros
+ * - Región para los resultados de consultas cacheadas
+ * - Región de marcas de tiempo que Hibernate usa para invalidar consultas
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String REGION_LIBROS = "com.literalura.model.entity.Libro";
+    public static final String REGION_AUTORES = "com.literalura.model.entity.Autor";
+    public static final String REGION_AUTOR_LIBROS = "com.literalura.model.entity.Autor.libros";
+    public static final String REGION_CONSULTAS = "default-query-results-region";
+    public static final String REGION_TIMESTAMPS = "default-update-timestamps-region";
+
+    @Value("${literalura.cache.libros.max-entradas:20000}")
+    private long maxLibros;
+
+    @Value("${literalura.cache.libros.ttl-minutos:60}")
+    private long ttlLibros;
+
+    @Value("${literalura.cache.autores.max-entradas:10000}")
+    private long maxAutores;
+
+    @Value("${literalura.cache.autores.ttl-minutos:60}")
+    private long ttlAutores;
+
+    @Value("${literalura.cache.consultas.max-entradas:1000}")
+    private long maxConsultas;
+
+    @Value("${literalura.cache.consultas.ttl-minutos:10}")
+    private long ttlConsultas;
+
+    /**
+     * Crea el CacheManager JCache que usa Hibernate para la caché de segundo nivel
+     *
+     * @return CacheManager con las regiones de la aplicación
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching
+                .getCachingProvider(EhcacheCachingProvider.class.getName())
+                .getCacheManager();
+
+        crearRegion(cacheManager, REGION_LIBROS, maxLibros, Duration.ofMinutes(ttlLibros));
+        crearRegion(cacheManager, REGION_AUTORES, maxAutores, Duration.ofMinutes(ttlAutores));
+        crearRegion(cacheManager, REGION_AUTOR_LIBROS, maxAutores, Duration.ofMinutes(ttlAutores));
+        crearRegion(cacheManager, REGION_CONSULTAS, maxConsultas, Duration.ofMinutes(ttlConsultas));
+
+        // Las marcas de tiempo no deben expirar ni desalojarse antes que las consultas,
+        // o Hibernate podría devolver resultados cacheados de tablas ya modificadas
+        crearRegion(cacheManager, REGION_TIMESTAMPS, 1000, null);
+
+        return cacheManager;
+    }
+
+    private void crearRegion(CacheManager cacheManager, String nombre, long maxEntradas, Duration ttl) {
+        if (cacheManager.getCache(nombre) != null) {
+            cacheManager.destroyCache(nombre);
+        }
+
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntradas));
+        builder = ttl != null
+                ? builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl))
+                : builder.withExpiry(ExpiryPolicyBuilder.noExpiration());
+
+        cacheManager.createCache(nombre, Eh107Configuration.fromEhcacheCacheConfiguration(builder));
+    }
+}
@@ -1,15 +1,19 @@
 package com.literalura.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.cache.CacheManager;
 import javax.sql.DataSource;
 import java.util.Properties;
 
@@ -17,13 +21,14 @@ import java.util.Properties;
  * Configuración de base de datos PostgreSQL para LiterAlura
  *
  * Esta clase configura:
- * - DataSource para PostgreSQL
+ * - DataSource para PostgreSQL con pool de conexiones HikariCP
  * - EntityManagerFactory con Hibernate
  * - TransactionManager para JPA
  * - Propiedades específicas de Hibernate
+ * - Caché de segundo nivel y de consultas (regiones en CacheConfig)
  */
 @Configuration
-@EnableJpaRepositories(basePackages = "com.alura.literalura.repository")
+@EnableJpaRepositories(basePackages = "com.literalura.repository")
 public class DatabaseConfig {
 
     @Value("${spring.datasource.url:jdbc:postgresql://localhost:5432/literalura}")
@@ -41,20 +46,98 @@ public class DatabaseConfig {
     @Value("${spring.jpa.show-sql:true}")
     private String showSql;
 
+    @Value("${literalura.cache.habilitada:true}")
+    private boolean cacheHabilitada;
+
+    @Autowired
+    @Qualifier("hibernateCacheManager")
+    private CacheManager hibernateCacheManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
+
+    @Value("${spring.jpa.properties.hibernate.generate_statistics:false}")
+    private boolean generarEstadisticas;
+
+    @Value("${literalura.db.pool.min-inactivas:5}")
+    private int poolMinInactivas;
+
+    @Value("${literalura.db.pool.max-conexiones:20}")
+    private int poolMaxConexiones;
+
+    @Value("${literalura.db.pool.timeout-conexion-ms:30000}")
+    private long poolTimeoutConexion;
+
+    @Value("${literalura.db.pool.timeout-validacion-ms:5000}")
+    private long poolTimeoutValidacion;
+
+    @Value("${literalura.db.pool.tiempo-inactividad-ms:300000}")
+    private long poolTiempoInactividad;
+
+    @Value("${literalura.db.pool.vida-maxima-ms:1800000}")
+    private long poolVidaMaxima;
+
+    @Value("${literalura.db.pool.deteccion-fugas-ms:60000}")
+    private long poolDeteccionFugas;
+
+    @Value("${literalura.db.pool.cache-sentencias:256}")
+    private int poolCacheSentencias;
+
     /**
-     * Configura el DataSource para PostgreSQL
+     * Configura el DataSource para PostgreSQL con un pool HikariCP
      *
-     * @return DataSource configurado para PostgreSQL
+     * @return DataSource con pool de conexiones
      */
-    @Bean
+    @Bean(destroyMethod = "close")
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("org.postgresql.Driver");
-        dataSource.setUrl(databaseUrl);
-        dataSource.setUsername(databaseUsername);
-        dataSource.setPassword(databasePassword);
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("literalura-pool");
+        config.setDriverClassName("org.postgresql.Driver");
+        config.setJdbcUrl(databaseUrl);
+        config.setUsername(databaseUsername);
+        config.setPassword(databasePassword);
+
+        // Tamaño del pool
+        config.setMinimumIdle(poolMinInactivas);
+        config.setMaximumPoolSize(poolMaxConexiones);
+
+        // Tiempos de espera y ciclo de vida de las conexiones
+        config.setConnectionTimeout(poolTimeoutConexion);
+        config.setIdleTimeout(poolTiempoInactividad);
+        config.setMaxLifetime(poolVidaMaxima);
+
+        // Validación: Hikari usa Connection.isValid() del driver JDBC4
+        config.setValidationTimeout(poolTimeoutValidacion);
+
+        // Aviso en el log si una conexión se retiene más de este tiempo
+        config.setLeakDetectionThreshold(poolDeteccionFugas);
+
+        // Las transacciones las gestiona JPA, no hace falta autocommit
+        config.setAutoCommit(false);
 
-        return dataSource;
+        // Caché de sentencias preparadas del driver PostgreSQL
+        config.addDataSourceProperty("prepareThreshold", "1");
+        config.addDataSourceProperty("preparedStatementCacheQueries", String.valueOf(poolCacheSentencias));
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB", "5");
+
+        // El driver reescribe los lotes de INSERT como un único INSERT multi-fila
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
+
+        // Métricas del pool (también expuestas por JMX)
+        config.setMetricsTrackerFactory(metricasPoolConexiones());
+        config.setRegisterMbeans(true);
+
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Métricas del pool de conexiones (activas, inactivas, tiempos de espera)
+     *
+     * @return Recolector de métricas del pool
+     */
+    @Bean
+    public MetricasPoolConexiones metricasPoolConexiones() {
+        return new MetricasPoolConexiones();
     }
 
     /**
@@ -66,15 +149,30 @@ public class DatabaseConfig {
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource());
-        em.setPackagesToScan("com.alura.literalura.model.entity");
+        em.setPackagesToScan("com.literalura.model.entity");
 
         HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
         em.setJpaVendorAdapter(vendorAdapter);
         em.setJpaProperties(hibernateProperties());
 
+        // El CacheManager es un objeto, no puede ir en Properties como texto
+        if (cacheHabilitada) {
+            em.getJpaPropertyMap().put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+        }
+
         return em;
     }
 
+    /**
+     * Proporciona el tamaño de lote JDBC configurado en Hibernate
+     *
+     * @return Cantidad de sentencias por lote
+     */
+    @Bean("jdbcBatchSize")
+    public Integer getJdbcBatchSize() {
+        return jdbcBatchSize;
+    }
+
     /**
      * Configura el TransactionManager para JPA
      *
@@ -113,18 +211,30 @@ public class DatabaseConfig {
         // Configuración de conexiones
         properties.setProperty("hibernate.connection.autocommit", "false");
 
-        // Configuración del pool de conexiones (básica)
-        properties.setProperty("hibernate.c3p0.min_size", "5");
-        properties.setProperty("hibernate.c3p0.max_size", "20");
-        properties.setProperty("hibernate.c3p0.timeout", "300");
-        properties.setProperty("hibernate.c3p0.max_statements", "50");
-        properties.setProperty("hibernate.c3p0.idle_test_period", "3000");
+        // El pool ya entrega las conexiones sin autocommit, Hibernate no necesita comprobarlo
+        properties.setProperty("hibernate.connection.provider_disables_autocommit", "true");
+
+        // Lotes JDBC: agrupa INSERT/UPDATE de la misma entidad en un solo viaje a la base de datos
+        properties.setProperty("hibernate.jdbc.batch_size", String.valueOf(jdbcBatchSize));
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty("hibernate.order_updates", "true");
+        properties.setProperty("hibernate.jdbc.batch_versioned_data", "true");
+
+        // Listas IN rellenadas hasta la siguiente potencia de 2: menos planes distintos por tamaño de lista
+        properties.setProperty("hibernate.query.in_clause_parameter_padding", "true");
 
-        // Configuración de caché de segundo nivel (opcional)
-        properties.setProperty("hibernate.cache.use_second_level_cache", "false");
+        // Caché de segundo nivel (JCache) para entidades y colecciones marcadas con @Cache
+        properties.setProperty("hibernate.cache.use_second_level_cache", String.valueOf(cacheHabilitada));
+        properties.setProperty("hibernate.cache.use_query_cache", String.valueOf(cacheHabilitada));
+        if (cacheHabilitada) {
+            properties.setProperty("hibernate.cache.region.factory_class", "jcache");
+            properties.setProperty("hibernate.javax.cache.missing_cache_strategy", "create-warn");
+            // Al persistir o borrar un Libro se desaloja la colección Autor.libros de su autor
+            properties.setProperty("hibernate.cache.auto_evict_collection_cache", "true");
+        }
 
         // Configuración de estadísticas (útil para debugging)
-        properties.setProperty("hibernate.generate_statistics", "false");
+        properties.setProperty("hibernate.generate_statistics", String.valueOf(generarEstadisticas));
 
         return properties;
     }
@@ -0,0 +1,81 @@
+package com.literalura.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Crea los índices de búsqueda de texto completo en PostgreSQL
+ *
+ * Esta clase configura:
+ * - Columnas tsvector generadas para libros.titulo y autores.nombre
+ * - Índices GIN sobre esas columnas (búsqueda por palabras con ranking)
+ * - Índices GIN de trigramas (pg_trgm) para búsquedas parciales y con errores
+ * - Índices de expresión para la paginación por clave (descargas y nacimiento)
+ * - Índice único sobre LOWER(autores.nombre) para crear autores sin duplicados
+ *
+ * Se ejecuta después de que Hibernate cree o actualice el esquema, y
+ * todas las sentencias son idempotentes.
+ */
+@Configuration
+@DependsOn("entityManagerFactory")
+public class IndicesBusquedaConfig {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${literalura.busqueda.crear-indices:true}")
+    private boolean crearIndices;
+
+    @PostConstruct
+    public void crearIndicesDeBusqueda() {
+        if (!crearIndices) {
+            return;
+        }
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        // Texto completo: configuración 'simple' porque el catálogo mezcla idiomas
+        ejecutar(jdbc, "ALTER TABLE libros ADD COLUMN IF NOT EXISTS titulo_tsv tsvector " +
+                "GENERATED ALWAYS AS (to_tsvector('simple', coalesce(titulo, ''))) STORED");
+        ejecutar(jdbc, "ALTER TABLE autores ADD COLUMN IF NOT EXISTS nombre_tsv tsvector " +
+                "GENERATED ALWAYS AS (to_tsvector('simple', coalesce(nombre, ''))) STORED");
+        ejecutar(jdbc, "CREATE INDEX IF NOT EXISTS idx_libros_titulo_tsv ON libros USING GIN (titulo_tsv)");
+        ejecutar(jdbc, "CREATE INDEX IF NOT EXISTS idx_autores_nombre_tsv ON autores USING GIN (nombre_tsv)");
+
+        // Búsqueda exacta sin distinguir mayúsculas (ResolutorAutores, findByNombreIgnoreCase).
+        // Es único para que AutorRepository.insertarSiNoExisten no duplique autores; si la base
+        // ya tiene duplicados falla hasta ejecutar db/migracion-autores-unicos.sql
+        if (ejecutar(jdbc, "CREATE UNIQUE INDEX IF NOT EXISTS uq_autores_nombre_lower ON autores (LOWER(nombre))")) {
+            ejecutar(jdbc, "DROP INDEX IF EXISTS idx_autores_nombre_lower");
+        }
+
+        // Paginación por clave: mismas expresiones que findSiguientesPorDescargas/PorNacimiento
+        ejecutar(jdbc, "CREATE INDEX IF NOT EXISTS idx_libros_descargas_id " +
+                "ON libros ((COALESCE(numero_descargas, 0)) DESC, id DESC)");
+        ejecutar(jdbc, "CREATE INDEX IF NOT EXISTS idx_autores_nacimiento_id " +
+                "ON autores ((COALESCE(ano_nacimiento, 999999)), id)");
+
+        // Trigramas: requieren la extensión pg_trgm, que puede necesitar permisos de superusuario
+        if (ejecutar(jdbc, "CREATE EXTENSION IF NOT EXISTS pg_trgm")) {
+            ejecutar(jdbc, "CREATE INDEX IF NOT EXISTS idx_libros_titulo_trgm ON libros USING GIN (titulo gin_trgm_ops)");
+            ejecutar(jdbc, "CREATE INDEX IF NOT EXISTS idx_autores_nombre_trgm ON autores USING GIN (nombre gin_trgm_ops)");
+        }
+    }
+
+    private boolean ejecutar(JdbcTemplate jdbc, String sql) {
+        try {
+            jdbc.execute(sql);
+            return true;
+        } catch (DataAccessException e) {
+            System.err.println("No se pudo crear el índice de búsqueda: " + e.getMostSpecificCause().getMessage());
+            return false;
+        }
+    }
+}
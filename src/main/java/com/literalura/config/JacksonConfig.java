@@ -2,6 +2,8 @@ package com.literalura.config;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -12,11 +14,14 @@ import org.springframework.context.annotation.Primary;
  * Esta clase configura ObjectMapper para:
  * - Manejar propiedades desconocidas sin fallar
  * - Configurar naming strategy snake_case
- * - Optimizar el rendimiento del parsing JSON
+ * - Optimizar el rendimiento del parsing JSON (Blackbird opcional)
  */
 @Configuration
 public class JacksonConfig {
 
+    @Value("${literalura.jackson.blackbird:false}")
+    private boolean blackbird;
+
     /**
      * Configura ObjectMapper personalizado para la aplicación
      *
@@ -39,6 +44,12 @@ public class JacksonConfig {
         // Configurar naming strategy para snake_case (download_count -> downloadCount)
         mapper.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
 
+        // Blackbird genera accesores con LambdaMetafactory en lugar de usar reflexión
+        // (sucesor de Afterburner para Java 11+)
+        if (blackbird) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+
         return mapper;
     }
 
@@ -0,0 +1,144 @@
+package com.literalura.config;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.TrustManager;
+import java.net.http.HttpClient;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas del cliente HTTP compartido
+ *
+ * HttpClient no informa de sus conexiones, así que se cuentan a través del
+ * SSLContext: el cliente crea un SSLEngine por cada conexión TLS nueva, y
+ * cada una implica un handshake. Comparando las conexiones con las
+ * respuestas recibidas se ve cuánto se reutilizan (HTTP/2 multiplexa
+ * todas las peticiones a un host sobre una sola conexión).
+ */
+public class MetricasClienteHttp {
+
+    private final LongAdder conexionesTls = new LongAdder();
+    private final LongAdder respuestas = new LongAdder();
+    private final LongAdder respuestasComprimidas = new LongAdder();
+    private final Map<HttpClient.Version, LongAdder> respuestasPorVersion = new ConcurrentHashMap<>();
+
+    /**
+     * Envuelve un SSLContext ya inicializado para contar las conexiones TLS
+     * @param delegado Contexto real
+     * @return Contexto que delega en el real
+     */
+    public SSLContext medir(SSLContext delegado) {
+        SSLContextSpi spi = new SSLContextSpi() {
+            @Override
+            protected void engineInit(KeyManager[] km, TrustManager[] tm, SecureRandom sr) {
+                throw new IllegalStateException("El contexto SSL medido ya está inicializado");
+            }
+
+            @Override
+            protected SSLSocketFactory engineGetSocketFactory() {
+                return delegado.getSocketFactory();
+            }
+
+            @Override
+            protected SSLServerSocketFactory engineGetServerSocketFactory() {
+                return delegado.getServerSocketFactory();
+            }
+
+            @Override
+            protected SSLEngine engineCreateSSLEngine() {
+                conexionesTls.increment();
+                return delegado.createSSLEngine();
+            }
+
+            @Override
+            protected SSLEngine engineCreateSSLEngine(String host, int puerto) {
+                conexionesTls.increment();
+                return delegado.createSSLEngine(host, puerto);
+            }
+
+            @Override
+            protected SSLSessionContext engineGetServerSessionContext() {
+                return delegado.getServerSessionContext();
+            }
+
+            @Override
+            protected SSLSessionContext engineGetClientSessionContext() {
+                return delegado.getClientSessionContext();
+            }
+
+            // Las implementaciones por defecto crean un SSLEngine y falsearían la cuenta
+            @Override
+            protected SSLParameters engineGetDefaultSSLParameters() {
+                return delegado.getDefaultSSLParameters();
+            }
+
+            @Override
+            protected SSLParameters engineGetSupportedSSLParameters() {
+                return delegado.getSupportedSSLParameters();
+            }
+        };
+        return new SSLContext(spi, delegado.getProvider(), delegado.getProtocol()) {};
+    }
+
+    /**
+     * Registra una respuesta recibida
+     * @param version Versión del protocolo negociada
+     * @param comprimida true si el cuerpo llegó con Content-Encoding
+     */
+    public void registrarRespuesta(HttpClient.Version version, boolean comprimida) {
+        respuestas.increment();
+        respuestasPorVersion.computeIfAbsent(version, v -> new LongAdder()).increment();
+        if (comprimida) {
+            respuestasComprimidas.increment();
+        }
+    }
+
+    /**
+     * Conexiones TLS abiertas (una por handshake completo)
+     * @return Cantidad de conexiones
+     */
+    public long getConexionesTls() {
+        return conexionesTls.sum();
+    }
+
+    public long getRespuestas() {
+        return respuestas.sum();
+    }
+
+    public long getRespuestasComprimidas() {
+        return respuestasComprimidas.sum();
+    }
+
+    public long getRespuestas(HttpClient.Version version) {
+        LongAdder contador = respuestasPorVersion.get(version);
+        return contador != null ? contador.sum() : 0;
+    }
+
+    /**
+     * Respuestas recibidas por cada conexión abierta
+     * @return Promedio de reutilización
+     */
+    public double getRespuestasPorConexion() {
+        long conexiones = conexionesTls.sum();
+        return conexiones > 0 ? (double) respuestas.sum() / conexiones : 0.0;
+    }
+
+    /**
+     * Información resumida para mostrar en consola
+     * @return String con las conexiones y respuestas
+     */
+    public String getResumen() {
+        return String.format("HTTP: %d conexiones TLS, %d respuestas (%d HTTP/2, %d HTTP/1.1, %d comprimidas), %.1f respuestas por conexión",
+                getConexionesTls(), getRespuestas(), getRespuestas(HttpClient.Version.HTTP_2),
+                getRespuestas(HttpClient.Version.HTTP_1_1), getRespuestasComprimidas(), getRespuestasPorConexion());
+    }
+}
@@ -0,0 +1,106 @@
+package com.literalura.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas del pool de conexiones de la base de datos
+ *
+ * Hikari informa aquí cada vez que entrega una conexión, de modo que se
+ * puede conocer el tiempo de espera por conexión además del estado del
+ * pool (activas, inactivas y en espera).
+ */
+public class MetricasPoolConexiones implements MetricsTrackerFactory {
+
+    private final LongAdder conexionesEntregadas = new LongAdder();
+    private final LongAdder esperaTotalNanos = new LongAdder();
+    private final AtomicLong esperaMaximaNanos = new AtomicLong();
+    private final LongAdder usoTotalMillis = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile PoolStats estadoPool;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.estadoPool = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                conexionesEntregadas.increment();
+                esperaTotalNanos.add(elapsedAcquiredNanos);
+                esperaMaximaNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usoTotalMillis.add(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    public int getConexionesActivas() {
+        return estadoPool != null ? estadoPool.getActiveConnections() : 0;
+    }
+
+    public int getConexionesInactivas() {
+        return estadoPool != null ? estadoPool.getIdleConnections() : 0;
+    }
+
+    public int getHilosEsperando() {
+        return estadoPool != null ? estadoPool.getPendingThreads() : 0;
+    }
+
+    public long getConexionesEntregadas() {
+        return conexionesEntregadas.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Tiempo medio de espera para obtener una conexión
+     * @return Milisegundos de espera promedio
+     */
+    public double getEsperaPromedioMillis() {
+        long entregadas = conexionesEntregadas.sum();
+        return entregadas > 0 ? esperaTotalNanos.sum() / (entregadas * 1_000_000.0) : 0.0;
+    }
+
+    /**
+     * Mayor tiempo de espera registrado para obtener una conexión
+     * @return Milisegundos de espera máxima
+     */
+    public long getEsperaMaximaMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(esperaMaximaNanos.get());
+    }
+
+    /**
+     * Tiempo medio que se retiene cada conexión
+     * @return Milisegundos de uso promedio
+     */
+    public double getUsoPromedioMillis() {
+        long entregadas = conexionesEntregadas.sum();
+        return entregadas > 0 ? (double) usoTotalMillis.sum() / entregadas : 0.0;
+    }
+
+    /**
+     * Información resumida para mostrar en consola
+     * @return String con el estado del pool
+     */
+    public String getResumen() {
+        return String.format("Pool: %d activas, %d inactivas, %d en espera - %d entregas, espera media %.2f ms (máx %d ms), uso medio %.1f ms, %d timeouts",
+                getConexionesActivas(), getConexionesInactivas(), getHilosEsperando(),
+                getConexionesEntregadas(), getEsperaPromedioMillis(), getEsperaMaximaMillis(),
+                getUsoPromedioMillis(), getTimeouts());
+    }
+}
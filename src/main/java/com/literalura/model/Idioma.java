@@ -0,0 +1,118 @@
+package com.literalura.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Idiomas del catálogo con su código normalizado
+ *
+ * En la base de datos cada idioma se guarda como un smallint (id) mediante
+ * IdiomaConverter. Los ids son fijos: no reordenar ni reutilizar valores,
+ * solo agregar nuevos al final.
+ */
+public enum Idioma {
+
+    OTROS(0, "otros", "Otros"),
+    ES(1, "es", "Español", "spanish", "español"),
+    EN(2, "en", "Inglés", "english", "inglés"),
+    FR(3, "fr", "Francés", "french", "francés"),
+    DE(4, "de", "Alemán", "german", "alemán"),
+    PT(5, "pt", "Portugués", "portuguese", "portugués"),
+    IT(6, "it", "Italiano", "italian", "italiano"),
+    LA(7, "la", "Latín", "latin", "latín"),
+    NL(8, "nl", "Neerlandés", "dutch"),
+    FI(9, "fi", "Finés", "finnish"),
+    SV(10, "sv", "Sueco", "swedish"),
+    DA(11, "da", "Danés", "danish"),
+    NO(12, "no", "Noruego", "norwegian"),
+    RU(13, "ru", "Ruso", "russian"),
+    ZH(14, "zh", "Chino", "chinese"),
+    JA(15, "ja", "Japonés", "japanese"),
+    EL(16, "el", "Griego", "greek"),
+    HU(17, "hu", "Húngaro", "hungarian"),
+    PL(18, "pl", "Polaco", "polish"),
+    CA(19, "ca", "Catalán", "catalan"),
+    EO(20, "eo", "Esperanto", "esperanto");
+
+    // Tablas precalculadas: id -> idioma y código o alias en minúsculas -> idioma
+    private static final Idioma[] POR_ID;
+    private static final Map<String, Idioma> POR_CODIGO = new HashMap<>();
+
+    static {
+        int maximo = 0;
+        for (Idioma idioma : values()) {
+            maximo = Math.max(maximo, idioma.id);
+        }
+        POR_ID = new Idioma[maximo + 1];
+        for (Idioma idioma : values()) {
+            POR_ID[idioma.id] = idioma;
+            POR_CODIGO.put(idioma.codigo, idioma);
+            for (String alias : idioma.alias) {
+                POR_CODIGO.put(alias, idioma);
+            }
+        }
+    }
+
+    private final short id;
+    private final String codigo;
+    private final String nombre;
+    private final String[] alias;
+
+    Idioma(int id, String codigo, String nombre, String... alias) {
+        this.id = (short) id;
+        this.codigo = codigo;
+        this.nombre = nombre;
+        this.alias = alias;
+    }
+
+    public short getId() {
+        return id;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Busca un idioma por su código o nombre (case insensitive)
+     * @param codigo Código ISO ("es") o nombre ("spanish")
+     * @return Idioma correspondiente
+     * @throws IllegalArgumentException si el código no corresponde a ningún idioma
+     */
+    public static Idioma fromCodigo(String codigo) {
+        Idioma idioma = codigo != null ? buscar(codigo) : null;
+        if (idioma == null) {
+            throw new IllegalArgumentException("Idioma no soportado: " + codigo);
+        }
+        return idioma;
+    }
+
+    /**
+     * Busca un idioma por su código, devolviendo OTROS si no se reconoce
+     * @param codigo Código ISO o nombre del idioma, puede ser null
+     * @return Idioma correspondiente u OTROS
+     */
+    public static Idioma desdeCodigoOOtros(String codigo) {
+        Idioma idioma = codigo != null ? buscar(codigo) : null;
+        return idioma != null ? idioma : OTROS;
+    }
+
+    /**
+     * Busca un idioma por el id guardado en la base de datos
+     * @param id Valor de la columna idioma
+     * @return Idioma correspondiente, u OTROS si el id es desconocido
+     */
+    public static Idioma desdeId(short id) {
+        return id >= 0 && id < POR_ID.length && POR_ID[id] != null ? POR_ID[id] : OTROS;
+    }
+
+    private static Idioma buscar(String codigo) {
+        Idioma idioma = POR_CODIGO.get(codigo);
+        return idioma != null ? idioma : POR_CODIGO.get(codigo.trim().toLowerCase(Locale.ROOT));
+    }
+}
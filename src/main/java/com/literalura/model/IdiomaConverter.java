@@ -0,0 +1,21 @@
+package com.literalura.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Guarda Idioma como smallint usando su id fijo en lugar del ordinal o del nombre
+ */
+@Converter(autoApply = true)
+public class IdiomaConverter implements AttributeConverter<Idioma, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(Idioma idioma) {
+        return idioma != null ? idioma.getId() : null;
+    }
+
+    @Override
+    public Idioma convertToEntityAttribute(Short id) {
+        return id != null ? Idioma.desdeId(id) : null;
+    }
+}
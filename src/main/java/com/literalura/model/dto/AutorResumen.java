@@ -0,0 +1,23 @@
+package com.literalura.model.dto;
+
+import com.literalura.model.entity.Autor;
+
+/**
+ * Proyección de solo lectura de un autor para listados
+ * Incluye la cantidad de libros, calculada en la misma consulta.
+ */
+public record AutorResumen(Long id, String nombre, Integer anoNacimiento, Integer anoFallecimiento,
+                           Long cantidadLibros) {
+
+    public String getInfoVida() {
+        return Autor.infoVida(anoNacimiento, anoFallecimiento);
+    }
+
+    /**
+     * Obtiene información resumida del autor para mostrar en listas
+     * @return String con nombre, años de vida y cantidad de libros
+     */
+    public String getInfoResumida() {
+        return String.format("%s %s - %d libro(s)", nombre, getInfoVida(), cantidadLibros);
+    }
+}
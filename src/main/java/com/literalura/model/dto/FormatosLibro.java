@@ -0,0 +1,176 @@
+package com.literalura.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Formatos de descarga de un libro de Gutendx (tipo MIME → URL)
+ *
+ * Se guardan en dos arrays paralelos en lugar de un LinkedHashMap: sin
+ * nodos por entrada y con los tipos MIME internados, ya que se repiten en
+ * todos los libros. El mapa solo se construye si se pide con asMap().
+ *
+ * Un ObjectReader con el atributo OMITIR salta el objeto sin leer las URL;
+ * la ingesta masiva lo usa porque no guarda los formatos.
+ */
+@JsonDeserialize(using = FormatosLibro.Deserializador.class)
+public final class FormatosLibro {
+
+    public static final String EPUB = "application/epub+zip";
+    public static final String KINDLE = "application/x-mobipocket-ebook";
+    public static final String HTML = "text/html";
+    public static final String TEXTO_PLANO = "text/plain; charset=us-ascii";
+    public static final String PORTADA = "image/jpeg";
+
+    /**
+     * Atributo de ObjectReader: con Boolean.TRUE los formatos se omiten
+     */
+    public static final String OMITIR = "literalura.formatos.omitir";
+
+    public static final FormatosLibro VACIO = new FormatosLibro(new String[0], new String[0], 0);
+
+    // Tipos ya vistos; el catálogo usa unas pocas decenas
+    private static final int MAX_TIPOS_INTERNADOS = 256;
+    private static final Map<String, String> TIPOS = new ConcurrentHashMap<>();
+
+    private final String[] tipos;
+    private final String[] urls;
+    private final int cantidad;
+
+    private FormatosLibro(String[] tipos, String[] urls, int cantidad) {
+        this.tipos = tipos;
+        this.urls = urls;
+        this.cantidad = cantidad;
+    }
+
+    /**
+     * URL de un formato
+     * @param tipo Tipo MIME exacto (por ejemplo FormatosLibro.EPUB)
+     * @return URL o null si el libro no tiene ese formato
+     */
+    public String getUrl(String tipo) {
+        for (int i = 0; i < cantidad; i++) {
+            if (tipos[i].equals(tipo)) {
+                return urls[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * URL del primer formato cuyo tipo MIME empieza por el prefijo
+     * @param prefijo Prefijo del tipo (por ejemplo "text/plain")
+     * @return URL o null si no hay ninguno
+     */
+    public String getUrlPorPrefijo(String prefijo) {
+        for (int i = 0; i < cantidad; i++) {
+            if (tipos[i].startsWith(prefijo)) {
+                return urls[i];
+            }
+        }
+        return null;
+    }
+
+    public String getEpub() {
+        return getUrl(EPUB);
+    }
+
+    public String getHtml() {
+        return getUrl(HTML);
+    }
+
+    public String getTextoPlano() {
+        return getUrlPorPrefijo("text/plain");
+    }
+
+    public String getPortada() {
+        return getUrl(PORTADA);
+    }
+
+    public int size() {
+        return cantidad;
+    }
+
+    public boolean isEmpty() {
+        return cantidad == 0;
+    }
+
+    /**
+     * Formatos como mapa de solo lectura, en el orden de la API.
+     * También es la forma en que se serializan a JSON.
+     * @return Mapa nuevo de tipo MIME a URL
+     */
+    @JsonValue
+    public Map<String, String> asMap() {
+        Map<String, String> mapa = new LinkedHashMap<>(cantidad * 2);
+        for (int i = 0; i < cantidad; i++) {
+            mapa.put(tipos[i], urls[i]);
+        }
+        return Collections.unmodifiableMap(mapa);
+    }
+
+    @Override
+    public String toString() {
+        return "FormatosLibro" + Arrays.toString(Arrays.copyOf(tipos, cantidad));
+    }
+
+    private static String internar(String tipo) {
+        String existente = TIPOS.get(tipo);
+        if (existente != null) {
+            return existente;
+        }
+        if (TIPOS.size() >= MAX_TIPOS_INTERNADOS) {
+            return tipo;
+        }
+        existente = TIPOS.putIfAbsent(tipo, tipo);
+        return existente != null ? existente : tipo;
+    }
+
+    /**
+     * Lee el objeto "formats" directamente del parser, sin árbol ni mapa intermedio
+     */
+    public static class Deserializador extends JsonDeserializer<FormatosLibro> {
+
+        @Override
+        public FormatosLibro deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT
+                    || Boolean.TRUE.equals(contexto.getAttribute(OMITIR))) {
+                parser.skipChildren();
+                return VACIO;
+            }
+            String[] tipos = new String[8];
+            String[] urls = new String[8];
+            int cantidad = 0;
+            String tipo;
+            while ((tipo = parser.nextFieldName()) != null) {
+                if (parser.nextToken() != JsonToken.VALUE_STRING) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (cantidad == tipos.length) {
+                    tipos = Arrays.copyOf(tipos, cantidad * 2);
+                    urls = Arrays.copyOf(urls, cantidad * 2);
+                }
+                tipos[cantidad] = internar(tipo);
+                urls[cantidad++] = parser.getText();
+            }
+            return cantidad == 0 ? VACIO : new FormatosLibro(tipos, urls, cantidad);
+        }
+
+        @Override
+        public FormatosLibro getNullValue(DeserializationContext contexto) {
+            return VACIO;
+        }
+    }
+}
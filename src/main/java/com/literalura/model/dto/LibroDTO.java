@@ -30,7 +30,7 @@ public class LibroDTO {
     private List<String> materias;
 
     @JsonAlias("formats")
-    private Object formatos; // Puede ser complejo, por ahora Object
+    private FormatosLibro formatos;
 
     // Constructor por defecto
     public LibroDTO() {}
@@ -94,11 +94,15 @@ public class LibroDTO {
         this.materias = materias;
     }
 
-    public Object getFormatos() {
-        return formatos;
+    /**
+     * Formatos de descarga del libro
+     * @return Formatos (vacío si la API no los envió)
+     */
+    public FormatosLibro getFormatos() {
+        return formatos != null ? formatos : FormatosLibro.VACIO;
     }
 
-    public void setFormatos(Object formatos) {
+    public void setFormatos(FormatosLibro formatos) {
         this.formatos = formatos;
     }
 
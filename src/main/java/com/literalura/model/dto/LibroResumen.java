@@ -0,0 +1,31 @@
+package com.literalura.model.dto;
+
+import com.literalura.model.Idioma;
+
+/**
+ * Proyección de solo lectura de un libro para listados
+ * Se obtiene con una sola consulta que une libros y autores, sin entidades
+ * gestionadas ni cargas perezosas del autor.
+ */
+public record LibroResumen(Long id, String titulo, String autor, Idioma idioma, Long numeroDescargas) {
+
+    public String getNombreIdioma() {
+        return idioma != null ? idioma.getNombre() : Idioma.OTROS.getNombre();
+    }
+
+    public String getDescargasFormateadas() {
+        return Libro.formatearDescargas(numeroDescargas);
+    }
+
+    /**
+     * Obtiene información resumida del libro para mostrar en listas
+     * @return String con información resumida
+     */
+    public String getInfoResumida() {
+        return String.format("'%s' por %s (%s) - %s descargas",
+                titulo,
+                autor != null ? autor : "Autor desconocido",
+                getNombreIdioma(),
+                getDescargasFormateadas());
+    }
+}
@@ -3,6 +3,9 @@ package com.literalura.model.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 import java.util.Objects;
 
@@ -12,10 +15,14 @@ import java.util.Objects;
  */
 @Entity
 @Table(name = "autores")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@BatchSize(size = 50)
 public class Autor {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "autores_seq")
+    @SequenceGenerator(name = "autores_seq", sequenceName = "autores_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El nombre del autor no puede estar vacío")
@@ -30,7 +37,10 @@ public class Autor {
     private Integer anoFallecimiento;
 
     // Relación uno a muchos con Libro
+    // Las colecciones se inicializan de 50 en 50 autores
     @OneToMany(mappedBy = "autor", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @BatchSize(size = 50)
     private List<Libro> libros;
 
     // Constructor por defecto (requerido por JPA)
@@ -116,6 +126,16 @@ public class Autor {
      * @return String con años de vida
      */
     public String getInfoVida() {
+        return infoVida(anoNacimiento, anoFallecimiento);
+    }
+
+    /**
+     * Años de vida como string
+     * @param anoNacimiento Año de nacimiento o null
+     * @param anoFallecimiento Año de fallecimiento o null
+     * @return String con años de vida
+     */
+    public static String infoVida(Integer anoNacimiento, Integer anoFallecimiento) {
         if (anoNacimiento == null && anoFallecimiento == null) {
             return "Fechas desconocidas";
         }
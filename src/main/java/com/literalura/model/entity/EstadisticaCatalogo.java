@@ -0,0 +1,88 @@
+package com.literalura.model.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA con los contadores precalculados del catálogo
+ * Mapea la tabla 'estadisticas_catalogo' en PostgreSQL
+ *
+ * Cada fila es un contador identificado por tipo y clave, por ejemplo
+ * ("idioma", "es") o ("siglo", "1800"). Se actualiza con incrementos en la
+ * misma transacción que guarda los libros y autores, y puede reconstruirse
+ * a partir de las tablas de origen.
+ */
+@Entity
+@Table(name = "estadisticas_catalogo")
+@IdClass(EstadisticaCatalogo.Clave.class)
+public class EstadisticaCatalogo {
+
+    public static final String TIPO_IDIOMA = "idioma";
+    public static final String TIPO_SIGLO = "siglo";
+
+    @Id
+    @Column(name = "tipo", length = 20)
+    private String tipo;
+
+    @Id
+    @Column(name = "clave", length = 20)
+    private String clave;
+
+    @Column(name = "cantidad", nullable = false)
+    private long cantidad;
+
+    // Suma de descargas de los libros contados (solo para el tipo idioma)
+    @Column(name = "descargas", nullable = false)
+    private long descargas;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
+    /**
+     * Clave primaria compuesta (tipo, clave)
+     */
+    public record Clave(String tipo, String clave) implements java.io.Serializable {
+        public Clave() {
+            this(null, null);
+        }
+    }
+
+    // Constructor por defecto (requerido por JPA)
+    public EstadisticaCatalogo() {}
+
+    // Constructor con parámetros
+    public EstadisticaCatalogo(String tipo, String clave, long cantidad, long descargas) {
+        this.tipo = tipo;
+        this.clave = clave;
+        this.cantidad = cantidad;
+        this.descargas = descargas;
+        this.fechaActualizacion = LocalDateTime.now();
+    }
+
+    // Getters
+    public String getTipo() {
+        return tipo;
+    }
+
+    public String getClave() {
+        return clave;
+    }
+
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    public long getDescargas() {
+        return descargas;
+    }
+
+    public LocalDateTime getFechaActualizacion() {
+        return fechaActualizacion;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EstadisticaCatalogo{tipo='%s', clave='%s', cantidad=%d, descargas=%d}",
+                tipo, clave, cantidad, descargas);
+    }
+}
@@ -0,0 +1,132 @@
+package com.literalura.model.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA que guarda el progreso de una ingesta masiva del catálogo
+ * Mapea la tabla 'estado_ingesta' en PostgreSQL
+ *
+ * Se actualiza en su propia transacción, después de confirmar los libros
+ * de cada página, así que la URL guardada nunca apunta más allá de la
+ * primera página sin confirmar. Si el proceso cae entre ambas transacciones,
+ * la página se vuelve a procesar al reanudar: la reanudación es "al menos
+ * una vez" y no duplica libros porque se guardan con el upsert por gutendx_id.
+ */
+@Entity
+@Table(name = "estado_ingesta")
+public class EstadoIngesta {
+
+    @Id
+    @Column(name = "nombre", length = 50)
+    private String nombre;
+
+    // URL de la siguiente página pendiente (null cuando la ingesta terminó)
+    @Column(name = "siguiente_pagina", length = 1000)
+    private String siguientePagina;
+
+    // Última página confirmada sin huecos anteriores (numeración ?page=N de la API)
+    @Column(name = "ultima_pagina", nullable = false)
+    private int ultimaPagina;
+
+    @Column(name = "paginas_procesadas", nullable = false)
+    private long paginasProcesadas;
+
+    @Column(name = "libros_guardados", nullable = false)
+    private long librosGuardados;
+
+    @Column(name = "completada", nullable = false)
+    private boolean completada;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
+    // Constructor por defecto (requerido por JPA)
+    public EstadoIngesta() {}
+
+    // Constructor con parámetros
+    public EstadoIngesta(String nombre, String siguientePagina) {
+        this.nombre = nombre;
+        this.siguientePagina = siguientePagina;
+        this.fechaActualizacion = LocalDateTime.now();
+    }
+
+    // Getters y Setters
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getSiguientePagina() {
+        return siguientePagina;
+    }
+
+    public void setSiguientePagina(String siguientePagina) {
+        this.siguientePagina = siguientePagina;
+    }
+
+    public int getUltimaPagina() {
+        return ultimaPagina;
+    }
+
+    public void setUltimaPagina(int ultimaPagina) {
+        this.ultimaPagina = ultimaPagina;
+    }
+
+    public long getPaginasProcesadas() {
+        return paginasProcesadas;
+    }
+
+    public void setPaginasProcesadas(long paginasProcesadas) {
+        this.paginasProcesadas = paginasProcesadas;
+    }
+
+    public long getLibrosGuardados() {
+        return librosGuardados;
+    }
+
+    public void setLibrosGuardados(long librosGuardados) {
+        this.librosGuardados = librosGuardados;
+    }
+
+    public boolean isCompletada() {
+        return completada;
+    }
+
+    public void setCompletada(boolean completada) {
+        this.completada = completada;
+    }
+
+    public LocalDateTime getFechaActualizacion() {
+        return fechaActualizacion;
+    }
+
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
+        this.fechaActualizacion = fechaActualizacion;
+    }
+
+    // Métodos de utilidad
+
+    /**
+     * Registra una página confirmada y avanza a la siguiente
+     * @param librosDePagina Libros guardados en la página confirmada
+     * @param siguiente URL de la siguiente página o null si era la última
+     */
+    public void registrarPagina(int librosDePagina, String siguiente) {
+        this.ultimaPagina++;
+        this.paginasProcesadas++;
+        this.librosGuardados += librosDePagina;
+        this.siguientePagina = siguiente;
+        this.completada = siguiente == null || siguiente.isEmpty();
+        this.fechaActualizacion = LocalDateTime.now();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EstadoIngesta{nombre='%s', paginas=%d, libros=%d, completada=%s}",
+                nombre, paginasProcesadas, librosGuardados, completada);
+    }
+}
@@ -1,10 +1,14 @@
 package com.literalura.model.entity;
 
+import com.literalura.model.Idioma;
+import com.literalura.model.IdiomaConverter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.Min;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.Objects;
 
 /**
@@ -12,11 +16,18 @@ import java.util.Objects;
  * Mapea la tabla 'libros' en PostgreSQL
  */
 @Entity
-@Table(name = "libros")
+@Table(name = "libros", indexes = @Index(name = "idx_libros_idioma", columnList = "idioma"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = Libro.GRAFO_AUTOR, attributeNodes = @NamedAttributeNode("autor"))
 public class Libro {
 
+    public static final String GRAFO_AUTOR = "Libro.autor";
+
+    // Secuencia con asignación por bloques: permite a Hibernate agrupar los INSERT en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "libros_seq")
+    @SequenceGenerator(name = "libros_seq", sequenceName = "libros_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El título no puede estar vacío")
@@ -24,10 +35,11 @@ public class Libro {
     @Column(name = "titulo", nullable = false, length = 500)
     private String titulo;
 
-    @NotBlank(message = "El idioma no puede estar vacío")
-    @Size(max = 10, message = "El código de idioma no puede exceder 10 caracteres")
-    @Column(name = "idioma", nullable = false, length = 10)
-    private String idioma;
+    // Código compacto (smallint); ver Idioma e IdiomaConverter
+    @NotNull(message = "El idioma no puede estar vacío")
+    @Convert(converter = IdiomaConverter.class)
+    @Column(name = "idioma", nullable = false)
+    private Idioma idioma;
 
     @Min(value = 0, message = "El número de descargas no puede ser negativo")
     @Column(name = "numero_descargas")
@@ -47,7 +59,7 @@ public class Libro {
     public Libro() {}
 
     // Constructor con parámetros principales
-    public Libro(String titulo, String idioma, Long numeroDescargas, Autor autor) {
+    public Libro(String titulo, Idioma idioma, Long numeroDescargas, Autor autor) {
         this.titulo = titulo;
         this.idioma = idioma;
         this.numeroDescargas = numeroDescargas;
@@ -55,7 +67,7 @@ public class Libro {
     }
 
     // Constructor completo
-    public Libro(String titulo, String idioma, Long numeroDescargas, Autor autor, Long gutendxId) {
+    public Libro(String titulo, Idioma idioma, Long numeroDescargas, Autor autor, Long gutendxId) {
         this.titulo = titulo;
         this.idioma = idioma;
         this.numeroDescargas = numeroDescargas;
@@ -80,11 +92,11 @@ public class Libro {
         this.titulo = titulo;
     }
 
-    public String getIdioma() {
+    public Idioma getIdioma() {
         return idioma;
     }
 
-    public void setIdioma(String idioma) {
+    public void setIdioma(Idioma idioma) {
         this.idioma = idioma;
     }
 
@@ -119,16 +131,7 @@ public class Libro {
      * @return Nombre del idioma en español
      */
     public String getNombreIdioma() {
-        return switch (idioma.toLowerCase()) {
-            case "es" -> "Español";
-            case "en" -> "Inglés";
-            case "fr" -> "Francés";
-            case "de" -> "Alemán";
-            case "pt" -> "Portugués";
-            case "it" -> "Italiano";
-            case "la" -> "Latín";
-            default -> idioma.toUpperCase();
-        };
+        return idioma != null ? idioma.getNombre() : Idioma.OTROS.getNombre();
     }
 
     /**
@@ -136,6 +139,15 @@ public class Libro {
      * @return String formateado con el número de descargas
      */
     public String getDescargasFormateadas() {
+        return formatearDescargas(numeroDescargas);
+    }
+
+    /**
+     * Formatea un número de descargas
+     * @param numeroDescargas Número de descargas o null
+     * @return String formateado con el número de descargas
+     */
+    public static String formatearDescargas(Long numeroDescargas) {
         if (numeroDescargas == null) {
             return "No disponible";
         }
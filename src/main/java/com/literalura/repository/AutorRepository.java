@@ -1,16 +1,23 @@
 package com.literalura.repository;
 
+import com.literalura.model.dto.AutorResumen;
 import com.literalura.model.entity.Autor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface AutorRepository extends JpaRepository<Autor, Long> {
+public interface AutorRepository extends JpaRepository<Autor, Long>, AutorUpsertRepository {
 
     /**
      * Busca un autor por nombre exacto (case insensitive)
@@ -26,11 +33,18 @@ public interface AutorRepository extends JpaRepository<Autor, Long> {
      * Busca autores vivos en un año determinado
      * Un autor está vivo si:
      * - Su año de nacimiento <= año especificado
-     * - Su año de fallecimiento es null O > año especificado
+     * - Su año de fallecimiento es null O >= año especificado (el año de
+     *   fallecimiento cuenta como vivo, igual que Autor.estabaVivoEn)
      */
-    @Query("SELECT a FROM Autor a WHERE a.anoNacimiento <= :ano AND (a.anoFallecimiento IS NULL OR a.anoFallecimiento > :ano)")
+    @Query("SELECT a FROM Autor a WHERE a.anoNacimiento <= :ano AND (a.anoFallecimiento IS NULL OR a.anoFallecimiento >= :ano)")
     List<Autor> findAutoresVivosEnAno(@Param("ano") Integer ano);
 
+    /**
+     * Busca autores vivos en algún momento del rango [anoInicio, anoFin]
+     */
+    @Query("SELECT a FROM Autor a WHERE a.anoNacimiento <= :anoFin AND (a.anoFallecimiento IS NULL OR a.anoFallecimiento >= :anoInicio)")
+    List<Autor> findAutoresVivosEntre(@Param("anoInicio") Integer anoInicio, @Param("anoFin") Integer anoFin);
+
     /**
      * Busca autores nacidos en un año específico
      */
@@ -59,7 +73,8 @@ public interface AutorRepository extends JpaRepository<Autor, Long> {
     /**
      * Cuenta autores vivos en un año determinado
      */
-    @Query("SELECT COUNT(a) FROM Autor a WHERE a.anoNacimiento <= :ano AND (a.anoFallecimiento IS NULL OR a.anoFallecimiento > :ano)")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT COUNT(a) FROM Autor a WHERE a.anoNacimiento <= :ano AND (a.anoFallecimiento IS NULL OR a.anoFallecimiento >= :ano)")
     Long contarAutoresVivosEnAno(@Param("ano") Integer ano);
 
     /**
@@ -67,6 +82,35 @@ public interface AutorRepository extends JpaRepository<Autor, Long> {
      */
     List<Autor> findAllByOrderByAnoNacimientoAsc();
 
+    /**
+     * Primera página por año de nacimiento para paginación por clave (keyset).
+     * Orden estable: año de nacimiento ascendente (desconocidos al final) y luego id.
+     */
+    @Query("SELECT a FROM Autor a ORDER BY COALESCE(a.anoNacimiento, 999999), a.id")
+    List<Autor> findPrimerosPorNacimiento(Pageable limite);
+
+    /**
+     * Página siguiente por año de nacimiento a partir del último autor de la página anterior.
+     * La primera condición, redundante, permite entrar en idx_autores_nacimiento_id por el año.
+     */
+    @Query("SELECT a FROM Autor a " +
+            "WHERE COALESCE(a.anoNacimiento, 999999) >= :ano " +
+            "AND (COALESCE(a.anoNacimiento, 999999) > :ano " +
+            "OR (COALESCE(a.anoNacimiento, 999999) = :ano AND a.id > :id)) " +
+            "ORDER BY COALESCE(a.anoNacimiento, 999999), a.id")
+    List<Autor> findSiguientesPorNacimiento(@Param("ano") Integer ano, @Param("id") Long id, Pageable limite);
+
+    /**
+     * Recorre los autores ordenados por año de nacimiento sin cargarlos en una lista.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = LibroRepository.TAMANO_FETCH),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Autor a ORDER BY COALESCE(a.anoNacimiento, 999999), a.id")
+    Stream<Autor> streamPorNacimiento();
+
     /**
      * Busca autores por siglo de nacimiento
      */
@@ -76,13 +120,15 @@ public interface AutorRepository extends JpaRepository<Autor, Long> {
     /**
      * Obtiene estadísticas de autores por siglo
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT FLOOR(a.anoNacimiento/100)*100 as siglo, COUNT(a) FROM Autor a WHERE a.anoNacimiento IS NOT NULL GROUP BY FLOOR(a.anoNacimiento/100) ORDER BY siglo")
     List<Object[]> obtenerEstadisticasPorSiglo();
 
     /**
-     * Busca autores con al menos un libro en la base de datos
+     * Busca autores con al menos un libro en la base de datos, con sus libros
+     * cargados en la misma consulta
      */
-    @Query("SELECT DISTINCT a FROM Autor a JOIN a.libros l")
+    @Query("SELECT DISTINCT a FROM Autor a JOIN FETCH a.libros ORDER BY a.nombre")
     List<Autor> findAutoresConLibros();
 
     /**
@@ -90,4 +136,73 @@ public interface AutorRepository extends JpaRepository<Autor, Long> {
      */
     @Query("SELECT COUNT(a) > 0 FROM Autor a WHERE a.nombre = :nombre AND a.anoNacimiento = :anoNacimiento AND (a.anoFallecimiento = :anoFallecimiento OR (a.anoFallecimiento IS NULL AND :anoFallecimiento IS NULL))")
     boolean existsByNombreAndAnosVida(@Param("nombre") String nombre, @Param("anoNacimiento") Integer anoNacimiento, @Param("anoFallecimiento") Integer anoFallecimiento);
-}
\ No newline at end of file
+
+    /**
+     * Busca en una sola consulta los autores cuyo nombre en minúsculas está en la lista
+     */
+    @Query("SELECT a FROM Autor a WHERE LOWER(a.nombre) IN :nombres")
+    List<Autor> findByNombreNormalizadoIn(@Param("nombres") Collection<String> nombres);
+
+    /**
+     * Obtiene pares [id, nombre] de los autores más recientes, para precargar cachés
+     */
+    @Query("SELECT a.id, a.nombre FROM Autor a ORDER BY a.id DESC")
+    List<Object[]> findIdYNombre(Pageable pageable);
+
+    /**
+     * Obtiene ternas [id, anoNacimiento, anoFallecimiento] para construir el índice de años de vida
+     */
+    @Query("SELECT a.id, a.anoNacimiento, a.anoFallecimiento FROM Autor a WHERE a.anoNacimiento IS NOT NULL")
+    List<Object[]> findAnosDeVida();
+
+    // Proyecciones para listados: cantidad de libros calculada en la misma consulta
+
+    String RESUMEN = "SELECT new com.literalura.model.dto.AutorResumen(" +
+            "a.id, a.nombre, a.anoNacimiento, a.anoFallecimiento, COUNT(l)) FROM Autor a LEFT JOIN a.libros l ";
+
+    String AGRUPAR = " GROUP BY a.id, a.nombre, a.anoNacimiento, a.anoFallecimiento ";
+
+    /**
+     * Resúmenes de todos los autores, por año de nacimiento
+     */
+    @Query(RESUMEN + AGRUPAR + "ORDER BY a.anoNacimiento NULLS LAST, a.id")
+    List<AutorResumen> findResumenes();
+
+    /**
+     * Resúmenes de autores cuyo nombre contiene el texto (case insensitive)
+     */
+    @Query(RESUMEN + "WHERE LOWER(a.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))" + AGRUPAR + "ORDER BY a.nombre")
+    List<AutorResumen> findResumenesPorNombre(@Param("nombre") String nombre);
+
+    /**
+     * Resúmenes de autores nacidos entre dos años
+     */
+    @Query(RESUMEN + "WHERE a.anoNacimiento BETWEEN :anoInicio AND :anoFin" + AGRUPAR + "ORDER BY a.anoNacimiento, a.id")
+    List<AutorResumen> findResumenesNacidosEntre(@Param("anoInicio") Integer anoInicio, @Param("anoFin") Integer anoFin);
+
+    /**
+     * Resúmenes de autores vivos en un año determinado (mismo criterio que findAutoresVivosEnAno)
+     */
+    @Query(RESUMEN + "WHERE a.anoNacimiento <= :ano AND (a.anoFallecimiento IS NULL OR a.anoFallecimiento >= :ano)" +
+            AGRUPAR + "ORDER BY a.anoNacimiento, a.id")
+    List<AutorResumen> findResumenesVivosEnAno(@Param("ano") Integer ano);
+
+    /**
+     * Resúmenes de autores vivos en algún momento del rango [anoInicio, anoFin]
+     */
+    @Query(RESUMEN + "WHERE a.anoNacimiento <= :anoFin AND (a.anoFallecimiento IS NULL OR a.anoFallecimiento >= :anoInicio)" +
+            AGRUPAR + "ORDER BY a.anoNacimiento, a.id")
+    List<AutorResumen> findResumenesVivosEntre(@Param("anoInicio") Integer anoInicio, @Param("anoFin") Integer anoFin);
+
+    /**
+     * Resúmenes de autores con al menos un libro
+     */
+    @Query(RESUMEN + AGRUPAR + "HAVING COUNT(l) > 0 ORDER BY a.nombre")
+    List<AutorResumen> findResumenesConLibros();
+
+    /**
+     * Resúmenes de los autores indicados, por año de nacimiento
+     */
+    @Query(RESUMEN + "WHERE a.id IN :ids" + AGRUPAR + "ORDER BY a.anoNacimiento, a.id")
+    List<AutorResumen> findResumenesPorIds(@Param("ids") Collection<Long> ids);
+}
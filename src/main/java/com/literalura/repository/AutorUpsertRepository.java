@@ -0,0 +1,28 @@
+package com.literalura.repository;
+
+import com.literalura.model.entity.Autor;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Creación idempotente de autores por nombre (fragmento de AutorRepository)
+ */
+public interface AutorUpsertRepository {
+
+    /**
+     * Resultado de insertarSiNoExisten: autores creados por esta llamada y
+     * autores que ya existían (por ejemplo, insertados a la vez por otra transacción)
+     */
+    record AutoresInsertados(List<Autor> insertados, List<Autor> existentes) {}
+
+    /**
+     * Inserta los autores cuyo nombre, sin distinguir mayúsculas, todavía no existe,
+     * con un único INSERT ... ON CONFLICT DO NOTHING sobre el índice único de
+     * LOWER(nombre). Los insertados reciben su id; los que ya existían se leen
+     * de la base de datos. Debe ejecutarse dentro de una transacción.
+     * @param autores Autores sin id, con nombres distintos
+     * @return Autores insertados y autores existentes
+     */
+    AutoresInsertados insertarSiNoExisten(Collection<Autor> autores);
+}
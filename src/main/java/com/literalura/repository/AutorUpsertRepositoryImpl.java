@@ -0,0 +1,138 @@
+package com.literalura.repository;
+
+import com.literalura.model.entity.Autor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Implementación con JDBC de la creación idempotente de autores
+ *
+ * El índice único sobre LOWER(nombre) (IndicesBusquedaConfig) hace que dos
+ * ingestas que crean el mismo autor a la vez no lo dupliquen: la segunda
+ * espera a que la primera confirme y luego lee la fila existente. Las filas
+ * se ordenan por nombre para que las transacciones bloqueen en el mismo orden.
+ */
+public class AutorUpsertRepositoryImpl implements AutorUpsertRepository {
+
+    // Debe coincidir con allocationSize de Autor
+    private static final int INCREMENTO_SECUENCIA = 50;
+
+    private static final String INSERTAR =
+            "INSERT INTO autores (id, nombre, ano_nacimiento, ano_fallecimiento) " +
+            "SELECT * FROM unnest(?::bigint[], ?::varchar[], ?::integer[], ?::integer[]) " +
+            "ON CONFLICT DO NOTHING " +
+            "RETURNING id, nombre, ano_nacimiento, ano_fallecimiento";
+
+    private static final String BUSCAR_POR_NOMBRE =
+            "SELECT id, nombre, ano_nacimiento, ano_fallecimiento FROM autores WHERE LOWER(nombre) = ANY(?::varchar[])";
+
+    private static final RowMapper<Autor> AUTOR = (rs, fila) -> {
+        Autor autor = new Autor(rs.getString(2), rs.getObject(3, Integer.class), rs.getObject(4, Integer.class));
+        autor.setId(rs.getLong(1));
+        return autor;
+    };
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public AutorUpsertRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public AutoresInsertados insertarSiNoExisten(Collection<Autor> autores) {
+        TreeMap<String, Autor> porNombre = new TreeMap<>();
+        for (Autor autor : autores) {
+            porNombre.putIfAbsent(autor.getNombre().toLowerCase(Locale.ROOT), autor);
+        }
+        if (porNombre.isEmpty()) {
+            return new AutoresInsertados(List.of(), List.of());
+        }
+
+        int n = porNombre.size();
+        long[] ids = ReservaSecuencia.reservar(jdbcTemplate, "autores_seq", INCREMENTO_SECUENCIA, n);
+        Long[] columnaId = new Long[n];
+        String[] nombres = new String[n];
+        Integer[] nacimientos = new Integer[n];
+        Integer[] fallecimientos = new Integer[n];
+        int i = 0;
+        for (Autor autor : porNombre.values()) {
+            columnaId[i] = ids[i];
+            nombres[i] = autor.getNombre();
+            nacimientos[i] = autor.getAnoNacimiento();
+            fallecimientos[i] = autor.getAnoFallecimiento();
+            i++;
+        }
+
+        List<Autor> insertados = jdbcTemplate.query(
+                (Connection con) -> {
+                    PreparedStatement ps = con.prepareStatement(INSERTAR);
+                    ps.setArray(1, con.createArrayOf("bigint", columnaId));
+                    ps.setArray(2, con.createArrayOf("varchar", nombres));
+                    ps.setArray(3, con.createArrayOf("integer", nacimientos));
+                    ps.setArray(4, con.createArrayOf("integer", fallecimientos));
+                    return ps;
+                },
+                AUTOR);
+
+        // Los que no se insertaron ya existían: se leen con la fila confirmada por la otra transacción
+        Set<String> faltantes = new HashSet<>(porNombre.keySet());
+        for (Autor insertado : insertados) {
+            faltantes.remove(insertado.getNombre().toLowerCase(Locale.ROOT));
+        }
+        List<Autor> existentes = new ArrayList<>();
+        if (!faltantes.isEmpty()) {
+            String[] claves = faltantes.toArray(new String[0]);
+            existentes = jdbcTemplate.query(
+                    (Connection con) -> {
+                        PreparedStatement ps = con.prepareStatement(BUSCAR_POR_NOMBRE);
+                        ps.setArray(1, con.createArrayOf("varchar", claves));
+                        return ps;
+                    },
+                    AUTOR);
+        }
+
+        if (!insertados.isEmpty()) {
+            desalojarConsultasAlConfirmar();
+        }
+        return new AutoresInsertados(insertados, existentes);
+    }
+
+    /**
+     * Las inserciones por JDBC no invalidan la caché de consultas de Hibernate:
+     * se desalojan sus regiones tras confirmar (conteos y listados de autores)
+     */
+    private void desalojarConsultasAlConfirmar() {
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sessionFactory.getCache().evictQueryRegions();
+                }
+            });
+        } else {
+            sessionFactory.getCache().evictQueryRegions();
+        }
+    }
+}
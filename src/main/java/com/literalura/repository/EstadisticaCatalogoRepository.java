@@ -0,0 +1,37 @@
+package com.literalura.repository;
+
+import com.literalura.model.entity.EstadisticaCatalogo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para los contadores precalculados del catálogo
+ */
+@Repository
+public interface EstadisticaCatalogoRepository extends JpaRepository<EstadisticaCatalogo, EstadisticaCatalogo.Clave> {
+
+    /**
+     * Suma un incremento a un contador, creándolo si no existe, sin leer la fila
+     * (seguro con varias transacciones concurrentes)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO estadisticas_catalogo (tipo, clave, cantidad, descargas, fecha_actualizacion) " +
+            "VALUES (:tipo, :clave, :cantidad, :descargas, now()) " +
+            "ON CONFLICT (tipo, clave) DO UPDATE SET " +
+            "cantidad = estadisticas_catalogo.cantidad + EXCLUDED.cantidad, " +
+            "descargas = estadisticas_catalogo.descargas + EXCLUDED.descargas, " +
+            "fecha_actualizacion = EXCLUDED.fecha_actualizacion",
+            nativeQuery = true)
+    int sumar(@Param("tipo") String tipo, @Param("clave") String clave,
+              @Param("cantidad") long cantidad, @Param("descargas") long descargas);
+
+    /**
+     * Elimina todos los contadores de un tipo antes de reconstruirlos
+     */
+    @Modifying
+    @Query("DELETE FROM EstadisticaCatalogo e WHERE e.tipo = :tipo")
+    int eliminarTipo(@Param("tipo") String tipo);
+}
@@ -0,0 +1,34 @@
+package com.literalura.repository;
+
+import com.literalura.model.entity.EstadoIngesta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repositorio para el progreso de las ingestas masivas del catálogo
+ */
+@Repository
+public interface EstadoIngestaRepository extends JpaRepository<EstadoIngesta, String> {
+
+    /**
+     * Suma una página confirmada a los contadores sin leer la fila
+     * (seguro con varios hilos de persistencia concurrentes)
+     */
+    @Modifying
+    @Query("UPDATE EstadoIngesta e SET e.paginasProcesadas = e.paginasProcesadas + 1, e.librosGuardados = e.librosGuardados + :libros, e.fechaActualizacion = :fecha WHERE e.nombre = :nombre")
+    int sumarPagina(@Param("nombre") String nombre, @Param("libros") long libros, @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Avanza la última página contigua solo si es mayor que la guardada,
+     * para que confirmaciones fuera de orden nunca hagan retroceder el progreso
+     */
+    @Modifying
+    @Query("UPDATE EstadoIngesta e SET e.ultimaPagina = :pagina, e.siguientePagina = :siguiente, e.completada = :completada WHERE e.nombre = :nombre AND e.ultimaPagina < :pagina")
+    int avanzarUltimaPagina(@Param("nombre") String nombre, @Param("pagina") int pagina,
+                            @Param("siguiente") String siguiente, @Param("completada") boolean completada);
+}
@@ -1,53 +1,46 @@
 package com.literalura.repository;
 
+import com.literalura.model.Idioma;
 import com.literalura.model.entity.Libro;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * Repositorio especializado para consultas relacionadas con idiomas
+ *
+ * El idioma se guarda como código compacto (smallint, ver IdiomaConverter)
+ * con índice idx_libros_idioma, así que los filtros son comparaciones de
+ * igualdad sobre un entero indexado.
  */
 @Repository
 public interface IdiomaticaRepository extends JpaRepository<Libro, Long> {
 
     /**
-     * Obtiene un mapa con la cantidad de libros por idioma
+     * Obtiene la cantidad de libros por idioma
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT l.idioma as idioma, COUNT(l) as cantidad FROM Libro l GROUP BY l.idioma ORDER BY COUNT(l) DESC")
     List<Object[]> obtenerResumenPorIdioma();
 
     /**
-     * Busca libros en español
+     * Busca libros de un idioma, paginados
+     * (reemplaza a findLibrosEnEspanol, findLibrosEnIngles, etc.)
      */
-    @Query("SELECT l FROM Libro l WHERE l.idioma IN ('es', 'spanish', 'español')")
-    List<Libro> findLibrosEnEspanol();
-
-    /**
-     * Busca libros en inglés
-     */
-    @Query("SELECT l FROM Libro l WHERE l.idioma IN ('en', 'english', 'inglés')")
-    List<Libro> findLibrosEnIngles();
-
-    /**
-     * Busca libros en francés
-     */
-    @Query("SELECT l FROM Libro l WHERE l.idioma IN ('fr', 'french', 'francés')")
-    List<Libro> findLibrosEnFrances();
-
-    /**
-     * Busca libros en portugués
-     */
-    @Query("SELECT l FROM Libro l WHERE l.idioma IN ('pt', 'portuguese', 'portugués')")
-    List<Libro> findLibrosEnPortugues();
+    Page<Libro> findByIdioma(Idioma idioma, Pageable pageable);
 
     /**
      * Obtiene los idiomas más populares (con más libros)
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT l.idioma FROM Libro l GROUP BY l.idioma ORDER BY COUNT(l) DESC LIMIT :limite")
-    List<String> findIdiomasPopulares(@Param("limite") int limite);
+    List<Idioma> findIdiomasPopulares(@Param("limite") int limite);
 }
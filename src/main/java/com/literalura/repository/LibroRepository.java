@@ -1,16 +1,31 @@
 package com.literalura.repository;
 
+import com.literalura.model.Idioma;
+import com.literalura.model.dto.LibroResumen;
 import com.literalura.model.entity.Libro;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface LibroRepository extends JpaRepository<Libro, Long> {
+public interface LibroRepository extends JpaRepository<Libro, Long>, LibroUpsertRepository {
+
+    /**
+     * Filas que el driver trae por viaje en las consultas en flujo (Stream)
+     */
+    String TAMANO_FETCH = "500";
 
     /**
      * Busca un libro por título exacto (case insensitive)
@@ -23,21 +38,57 @@ public interface LibroRepository extends JpaRepository<Libro, Long> {
     List<Libro> findByTituloContainingIgnoreCase(String titulo);
 
     /**
-     * Busca libros por idioma
+     * Búsqueda de texto completo en título y nombre del autor (índices GIN tsvector).
+     * Los resultados se ordenan por relevancia, dando el doble de peso al título,
+     * y a igual relevancia por número de descargas.
      */
-    List<Libro> findByIdioma(String idioma);
+    @Query(value = "SELECT l.* FROM libros l JOIN autores a ON a.id = l.autor_id, " +
+            "websearch_to_tsquery('simple', :consulta) q " +
+            "WHERE l.titulo_tsv @@ q OR a.nombre_tsv @@ q " +
+            "ORDER BY 2 * ts_rank(l.titulo_tsv, q) + ts_rank(a.nombre_tsv, q) DESC, l.numero_descargas DESC NULLS LAST, l.id",
+            countQuery = "SELECT COUNT(*) FROM libros l JOIN autores a ON a.id = l.autor_id, " +
+                    "websearch_to_tsquery('simple', :consulta) q " +
+                    "WHERE l.titulo_tsv @@ q OR a.nombre_tsv @@ q",
+            nativeQuery = true)
+    Page<Libro> buscarPorTextoCompleto(@Param("consulta") String consulta, Pageable pageable);
+
+    /**
+     * Búsqueda aproximada por título con trigramas (tolera errores de escritura
+     * y fragmentos de palabras), ordenada por similitud
+     */
+    @Query(value = "SELECT l.* FROM libros l WHERE l.titulo % :texto " +
+            "ORDER BY similarity(l.titulo, :texto) DESC, l.numero_descargas DESC NULLS LAST, l.id",
+            countQuery = "SELECT COUNT(*) FROM libros l WHERE l.titulo % :texto",
+            nativeQuery = true)
+    Page<Libro> buscarPorTituloSimilar(@Param("texto") String texto, Pageable pageable);
 
     /**
      * Cuenta la cantidad de libros por idioma
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(l) FROM Libro l WHERE l.idioma = :idioma")
-    Long contarLibrosPorIdioma(@Param("idioma") String idioma);
+    Long contarLibrosPorIdioma(@Param("idioma") Idioma idioma);
 
     /**
      * Obtiene todos los idiomas disponibles en la base de datos
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT DISTINCT l.idioma FROM Libro l ORDER BY l.idioma")
-    List<String> findDistinctIdiomas();
+    List<Idioma> findDistinctIdiomas();
+
+    /**
+     * Obtiene todos los libros con su autor cargado en la misma consulta (grafo Libro.autor)
+     */
+    @EntityGraph(Libro.GRAFO_AUTOR)
+    @Query("SELECT l FROM Libro l ORDER BY l.id")
+    List<Libro> findAllConAutor();
+
+    /**
+     * Busca libros por idioma con su autor cargado en la misma consulta
+     */
+    @EntityGraph(Libro.GRAFO_AUTOR)
+    @Query("SELECT l FROM Libro l WHERE l.idioma = :idioma ORDER BY l.id")
+    List<Libro> findByIdiomaConAutor(@Param("idioma") Idioma idioma);
 
     /**
      * Busca libros por autor
@@ -50,9 +101,91 @@ public interface LibroRepository extends JpaRepository<Libro, Long> {
      */
     List<Libro> findAllByOrderByNumeroDescargasDesc();
 
+    /**
+     * Primera página por descargas para paginación por clave (keyset).
+     * Orden estable: descargas (nulas como 0) descendente y luego id descendente.
+     */
+    @Query("SELECT l FROM Libro l JOIN FETCH l.autor " +
+            "ORDER BY COALESCE(l.numeroDescargas, 0) DESC, l.id DESC")
+    List<Libro> findPrimerosPorDescargas(Pageable limite);
+
+    /**
+     * Página siguiente por descargas a partir del último libro de la página anterior.
+     * A diferencia de OFFSET, el coste no crece con el número de página: la primera
+     * condición, redundante, es la cota por la que PostgreSQL entra en idx_libros_descargas_id
+     * (con solo el OR recorrería el índice desde el principio).
+     */
+    @Query("SELECT l FROM Libro l JOIN FETCH l.autor " +
+            "WHERE COALESCE(l.numeroDescargas, 0) <= :descargas " +
+            "AND (COALESCE(l.numeroDescargas, 0) < :descargas " +
+            "OR (COALESCE(l.numeroDescargas, 0) = :descargas AND l.id < :id)) " +
+            "ORDER BY COALESCE(l.numeroDescargas, 0) DESC, l.id DESC")
+    List<Libro> findSiguientesPorDescargas(@Param("descargas") Long descargas, @Param("id") Long id,
+                                           Pageable limite);
+
+    /**
+     * Primeras filas [id, gutendxId, descargas] por descargas, para refrescar las descargas
+     */
+    @Query("SELECT l.id, l.gutendxId, COALESCE(l.numeroDescargas, 0) FROM Libro l " +
+            "WHERE l.gutendxId IS NOT NULL " +
+            "ORDER BY COALESCE(l.numeroDescargas, 0) DESC, l.id DESC")
+    List<Object[]> findDescargasPrimeras(Pageable limite);
+
+    /**
+     * Filas [id, gutendxId, descargas] siguientes a (descargas, id) en el mismo orden,
+     * con la misma cota redundante que findSiguientesPorDescargas para entrar en el índice
+     */
+    @Query("SELECT l.id, l.gutendxId, COALESCE(l.numeroDescargas, 0) FROM Libro l " +
+            "WHERE l.gutendxId IS NOT NULL AND COALESCE(l.numeroDescargas, 0) <= :descargas " +
+            "AND (COALESCE(l.numeroDescargas, 0) < :descargas " +
+            "OR (COALESCE(l.numeroDescargas, 0) = :descargas AND l.id < :id)) " +
+            "ORDER BY COALESCE(l.numeroDescargas, 0) DESC, l.id DESC")
+    List<Object[]> findDescargasSiguientes(@Param("descargas") Long descargas, @Param("id") Long id,
+                                           Pageable limite);
+
+    /**
+     * Recorre todos los libros con su autor sin cargarlos en una lista.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAMANO_FETCH),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l FROM Libro l JOIN FETCH l.autor ORDER BY l.id")
+    Stream<Libro> streamTodos();
+
+    /**
+     * Recorre los libros ordenados por descargas sin cargarlos en una lista
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAMANO_FETCH),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l FROM Libro l JOIN FETCH l.autor " +
+            "ORDER BY COALESCE(l.numeroDescargas, 0) DESC, l.id DESC")
+    Stream<Libro> streamPorDescargas();
+
+    /**
+     * Recorre los libros con más de X descargas sin cargarlos en una lista
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAMANO_FETCH),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l FROM Libro l JOIN FETCH l.autor WHERE l.numeroDescargas > :descargas " +
+            "ORDER BY l.numeroDescargas DESC, l.id DESC")
+    Stream<Libro> streamConDescargasMayoresA(@Param("descargas") Long descargas);
+
+    /**
+     * Obtiene los 10 libros más descargados
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Libro> findTop10ByOrderByNumeroDescargasDesc();
+
     /**
      * Busca los top N libros más descargados
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT l FROM Libro l ORDER BY l.numeroDescargas DESC LIMIT :limite")
     List<Libro> findTopLibrosMasDescargados(@Param("limite") int limite);
 
@@ -70,6 +203,66 @@ public interface LibroRepository extends JpaRepository<Libro, Long> {
     /**
      * Obtiene estadísticas de idiomas
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT l.idioma, COUNT(l) FROM Libro l GROUP BY l.idioma ORDER BY COUNT(l) DESC")
     List<Object[]> obtenerEstadisticasPorIdioma();
+
+    /**
+     * Obtiene filas [idioma, cantidad de libros, suma de descargas] para reconstruir las estadísticas
+     */
+    @Query("SELECT l.idioma, COUNT(l), COALESCE(SUM(l.numeroDescargas), 0) FROM Libro l GROUP BY l.idioma")
+    List<Object[]> obtenerTotalesPorIdioma();
+
+    /**
+     * Busca un libro por su ID en la API Gutendx
+     */
+    Optional<Libro> findByGutendxId(Long gutendxId);
+
+    /**
+     * Obtiene filas [id, titulo, nombre del autor, descargas] para construir el índice en memoria
+     */
+    @Query("SELECT l.id, l.titulo, a.nombre, l.numeroDescargas FROM Libro l JOIN l.autor a ORDER BY l.id")
+    List<Object[]> findDatosIndice(Pageable pageable);
+
+    // Proyecciones para listados: una sola consulta con el autor unido y sin entidades gestionadas
+
+    String RESUMEN = "SELECT new com.literalura.model.dto.LibroResumen(" +
+            "l.id, l.titulo, a.nombre, l.idioma, l.numeroDescargas) FROM Libro l JOIN l.autor a ";
+
+    /**
+     * Resúmenes de libros cuyo título contiene el texto (case insensitive)
+     */
+    @Query(RESUMEN + "WHERE LOWER(l.titulo) LIKE LOWER(CONCAT('%', :titulo, '%')) ORDER BY l.titulo")
+    List<LibroResumen> findResumenesPorTitulo(@Param("titulo") String titulo);
+
+    /**
+     * Resúmenes de libros de un idioma, por descargas
+     */
+    @Query(RESUMEN + "WHERE l.idioma = :idioma ORDER BY l.numeroDescargas DESC NULLS LAST, l.id")
+    List<LibroResumen> findResumenesPorIdioma(@Param("idioma") Idioma idioma);
+
+    /**
+     * Resúmenes de los libros de un autor
+     */
+    @Query(RESUMEN + "WHERE a.id = :autorId ORDER BY l.titulo")
+    List<LibroResumen> findResumenesPorAutor(@Param("autorId") Long autorId);
+
+    /**
+     * Resúmenes de los libros más descargados (el tamaño lo fija el Pageable)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(RESUMEN + "ORDER BY l.numeroDescargas DESC NULLS LAST, l.id")
+    List<LibroResumen> findResumenesMasDescargados(Pageable limite);
+
+    /**
+     * Resúmenes de libros con más de X descargas
+     */
+    @Query(RESUMEN + "WHERE l.numeroDescargas > :descargas ORDER BY l.numeroDescargas DESC, l.id")
+    List<LibroResumen> findResumenesConDescargasMayoresA(@Param("descargas") Long descargas);
+
+    /**
+     * Resúmenes de los libros indicados, en cualquier orden
+     */
+    @Query(RESUMEN + "WHERE l.id IN :ids")
+    List<LibroResumen> findResumenesPorIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,43 @@
+package com.literalura.repository;
+
+import com.literalura.model.Idioma;
+import com.literalura.model.entity.Libro;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escritura idempotente de libros por gutendx_id (fragmento de LibroRepository)
+ */
+public interface LibroUpsertRepository {
+
+    /**
+     * Resultado de un upsert: id del libro, si la fila se insertó o se actualizó
+     * y sus descargas antes y después (anteriores es null si se insertó o no tenía valor)
+     */
+    record ResultadoUpsert(long id, long gutendxId, boolean insertado, Idioma idioma,
+                           Long anteriores, Long descargas) {}
+
+    /**
+     * Libro cuyas descargas cambiaron en actualizarDescargas; anteriores es null si no tenía valor
+     */
+    record DescargasActualizadas(long id, long gutendxId, Idioma idioma, Long anteriores, long descargas) {}
+
+    /**
+     * Inserta los libros o, si su gutendx_id ya existe, actualiza sus descargas,
+     * con INSERT ... ON CONFLICT en lotes y sin consultar antes. Los libros
+     * insertados reciben su id. Debe ejecutarse dentro de una transacción.
+     * @param libros Libros con gutendxId y autor persistido
+     * @return Filas insertadas o actualizadas (las que no cambiaron no se devuelven)
+     */
+    List<ResultadoUpsert> upsertPorGutendxId(Collection<Libro> libros);
+
+    /**
+     * Actualiza las descargas de varios libros con un único UPDATE ... FROM unnest(...).
+     * Solo se escriben las filas cuyo valor cambió. Debe ejecutarse dentro de una transacción.
+     * @param descargasPorGutendxId Nuevas descargas por ID de Gutendx
+     * @return Libros actualizados
+     */
+    List<DescargasActualizadas> actualizarDescargas(Map<Long, Long> descargasPorGutendxId);
+}
@@ -0,0 +1,206 @@
+package com.literalura.repository;
+
+import com.literalura.model.Idioma;
+import com.literalura.model.entity.Autor;
+import com.literalura.model.entity.Libro;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Implementación con JDBC del upsert por gutendx_id y de la actualización de descargas
+ *
+ * Cada lote es una sola sentencia INSERT ... SELECT FROM unnest(...) con los
+ * valores en arrays, así que el coste en viajes a la base de datos no depende
+ * del número de filas. Las filas se ordenan por gutendx_id para que dos
+ * ingestas concurrentes bloqueen en el mismo orden y no se produzcan
+ * interbloqueos.
+ */
+public class LibroUpsertRepositoryImpl implements LibroUpsertRepository {
+
+    private static final int FILAS_POR_SENTENCIA = 500;
+
+    // Debe coincidir con allocationSize de Libro: cada valor de la secuencia reserva un bloque
+    private static final int INCREMENTO_SECUENCIA = 50;
+
+    // anteriores lee las descargas previas a la sentencia: todas sus partes ven la misma instantánea
+    private static final String UPSERT =
+            "WITH datos AS (SELECT * FROM unnest(?::bigint[], ?::varchar[], ?::smallint[], ?::bigint[], ?::bigint[], ?::bigint[]) " +
+            "AS d(id, titulo, idioma, numero_descargas, autor_id, gutendx_id)), " +
+            "anteriores AS (SELECT l.gutendx_id, l.numero_descargas FROM libros AS l JOIN datos AS d ON d.gutendx_id = l.gutendx_id) " +
+            "INSERT INTO libros (id, titulo, idioma, numero_descargas, autor_id, gutendx_id) " +
+            "SELECT * FROM datos " +
+            "ON CONFLICT (gutendx_id) DO UPDATE SET numero_descargas = EXCLUDED.numero_descargas " +
+            "WHERE libros.numero_descargas IS DISTINCT FROM EXCLUDED.numero_descargas " +
+            "RETURNING libros.id, libros.gutendx_id, (libros.xmax = 0) AS insertado, libros.idioma, " +
+            "(SELECT a.numero_descargas FROM anteriores AS a WHERE a.gutendx_id = libros.gutendx_id), " +
+            "libros.numero_descargas";
+
+    // La autounión con v devuelve el valor anterior a la actualización
+    private static final String ACTUALIZAR_DESCARGAS =
+            "UPDATE libros AS l SET numero_descargas = d.descargas " +
+            "FROM unnest(?::bigint[], ?::bigint[]) AS d(gutendx_id, descargas) " +
+            "JOIN libros AS v ON v.gutendx_id = d.gutendx_id " +
+            "WHERE l.id = v.id AND l.numero_descargas IS DISTINCT FROM d.descargas " +
+            "RETURNING l.id, l.gutendx_id, l.idioma, v.numero_descargas, l.numero_descargas";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public LibroUpsertRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public List<ResultadoUpsert> upsertPorGutendxId(Collection<Libro> libros) {
+        // Un mismo gutendx_id dos veces en la sentencia haría fallar ON CONFLICT: gana el último
+        TreeMap<Long, Libro> porGutendxId = new TreeMap<>();
+        for (Libro libro : libros) {
+            if (libro.getGutendxId() != null) {
+                porGutendxId.put(libro.getGutendxId(), libro);
+            }
+        }
+        if (porGutendxId.isEmpty()) {
+            return List.of();
+        }
+
+        // Los autores nuevos siguen pendientes en el contexto de persistencia y la FK los necesita
+        entityManager.flush();
+
+        List<Libro> ordenados = new ArrayList<>(porGutendxId.values());
+        List<ResultadoUpsert> resultados = new ArrayList<>(ordenados.size());
+        for (int inicio = 0; inicio < ordenados.size(); inicio += FILAS_POR_SENTENCIA) {
+            List<Libro> lote = ordenados.subList(inicio, Math.min(inicio + FILAS_POR_SENTENCIA, ordenados.size()));
+            resultados.addAll(ejecutarLote(lote,
+                    ReservaSecuencia.reservar(jdbcTemplate, "libros_seq", INCREMENTO_SECUENCIA, lote.size())));
+        }
+
+        List<Long> actualizados = resultados.stream()
+                .filter(resultado -> !resultado.insertado())
+                .map(ResultadoUpsert::id)
+                .toList();
+        // Los autores con libros nuevos tienen la colección Autor.libros cacheada desactualizada
+        Set<Long> autoresConNuevos = ordenados.stream()
+                .filter(libro -> libro.getId() != null)
+                .map(libro -> libro.getAutor().getId())
+                .collect(Collectors.toSet());
+        desalojarCacheAlConfirmar(actualizados, autoresConNuevos);
+        return resultados;
+    }
+
+    @Override
+    public List<DescargasActualizadas> actualizarDescargas(Map<Long, Long> descargasPorGutendxId) {
+        if (descargasPorGutendxId.isEmpty()) {
+            return List.of();
+        }
+        // Mismo orden de bloqueo que el upsert
+        TreeMap<Long, Long> ordenadas = new TreeMap<>(descargasPorGutendxId);
+        Long[] gutendxIds = ordenadas.keySet().toArray(new Long[0]);
+        Long[] descargas = ordenadas.values().toArray(new Long[0]);
+
+        List<DescargasActualizadas> actualizadas = jdbcTemplate.query(
+                (Connection con) -> {
+                    PreparedStatement ps = con.prepareStatement(ACTUALIZAR_DESCARGAS);
+                    ps.setArray(1, con.createArrayOf("bigint", gutendxIds));
+                    ps.setArray(2, con.createArrayOf("bigint", descargas));
+                    return ps;
+                },
+                (rs, fila) -> new DescargasActualizadas(rs.getLong(1), rs.getLong(2),
+                        Idioma.desdeId(rs.getShort(3)), rs.getObject(4, Long.class), rs.getLong(5)));
+
+        desalojarCacheAlConfirmar(actualizadas.stream().map(DescargasActualizadas::id).toList(), Set.of());
+        return actualizadas;
+    }
+
+    private List<ResultadoUpsert> ejecutarLote(List<Libro> lote, long[] ids) {
+        int n = lote.size();
+        Long[] columnaId = new Long[n];
+        String[] titulos = new String[n];
+        Short[] idiomas = new Short[n];
+        Long[] descargas = new Long[n];
+        Long[] autores = new Long[n];
+        Long[] gutendxIds = new Long[n];
+        for (int i = 0; i < n; i++) {
+            Libro libro = lote.get(i);
+            columnaId[i] = ids[i];
+            titulos[i] = libro.getTitulo();
+            idiomas[i] = libro.getIdioma().getId();
+            descargas[i] = libro.getNumeroDescargas();
+            autores[i] = libro.getAutor().getId();
+            gutendxIds[i] = libro.getGutendxId();
+        }
+
+        List<ResultadoUpsert> resultados = jdbcTemplate.query(
+                (Connection con) -> {
+                    PreparedStatement ps = con.prepareStatement(UPSERT);
+                    ps.setArray(1, con.createArrayOf("bigint", columnaId));
+                    ps.setArray(2, con.createArrayOf("varchar", titulos));
+                    ps.setArray(3, con.createArrayOf("smallint", idiomas));
+                    ps.setArray(4, con.createArrayOf("bigint", descargas));
+                    ps.setArray(5, con.createArrayOf("bigint", autores));
+                    ps.setArray(6, con.createArrayOf("bigint", gutendxIds));
+                    return ps;
+                },
+                (rs, fila) -> new ResultadoUpsert(rs.getLong(1), rs.getLong(2), rs.getBoolean(3),
+                        Idioma.desdeId(rs.getShort(4)), rs.getObject(5, Long.class), rs.getObject(6, Long.class)));
+
+        // Los libros insertados reciben el id con el que quedaron guardados
+        Map<Long, Long> idPorGutendxId = new HashMap<>();
+        for (ResultadoUpsert resultado : resultados) {
+            if (resultado.insertado()) {
+                idPorGutendxId.put(resultado.gutendxId(), resultado.id());
+            }
+        }
+        for (Libro libro : lote) {
+            libro.setId(idPorGutendxId.get(libro.getGutendxId()));
+        }
+        return resultados;
+    }
+
+    /**
+     * Las escrituras por JDBC no pasan por Hibernate: tras confirmar se desalojan
+     * de la caché de segundo nivel los libros actualizados, la colección libros
+     * de los autores con libros nuevos y las consultas cacheadas
+     */
+    private void desalojarCacheAlConfirmar(List<Long> actualizados, Set<Long> autores) {
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        Runnable desalojar = () -> {
+            for (Long id : actualizados) {
+                sessionFactory.getCache().evictEntityData(Libro.class, id);
+            }
+            for (Long autorId : autores) {
+                sessionFactory.getCache().evictCollectionData(Autor.class.getName() + ".libros", autorId);
+            }
+            sessionFactory.getCache().evictQueryRegions();
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    desalojar.run();
+                }
+            });
+        } else {
+            desalojar.run();
+        }
+    }
+}
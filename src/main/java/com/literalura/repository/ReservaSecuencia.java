@@ -0,0 +1,42 @@
+package com.literalura.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Reserva ids de una secuencia para inserciones por JDBC con la misma
+ * semántica que el optimizador "pooled" de Hibernate: cada valor v de una
+ * secuencia con INCREMENT BY n reserva los ids (v - n + 1 .. v), así que
+ * los ids no chocan con los que asigna Hibernate a las entidades persistidas
+ */
+final class ReservaSecuencia {
+
+    private ReservaSecuencia() {}
+
+    /**
+     * @param jdbc Acceso JDBC a la base de datos
+     * @param secuencia Nombre de la secuencia
+     * @param incremento allocationSize de la entidad (debe coincidir con INCREMENT BY)
+     * @param cantidad Cantidad de ids a reservar
+     * @return Ids reservados
+     */
+    static long[] reservar(JdbcTemplate jdbc, String secuencia, int incremento, int cantidad) {
+        int bloques = (cantidad + incremento - 1) / incremento;
+        List<Long> valores = jdbc.queryForList(
+                "SELECT nextval('" + secuencia + "') FROM generate_series(1, ?)", Long.class, bloques);
+
+        long[] ids = new long[cantidad];
+        int i = 0;
+        for (long valor : valores) {
+            // El primer valor de una secuencia nueva (1) solo aporta el id 1
+            for (long id = Math.max(1, valor - incremento + 1); id <= valor && i < cantidad; id++) {
+                ids[i++] = id;
+            }
+        }
+        while (i < cantidad) {
+            ids[i++] = jdbc.queryForObject("SELECT nextval('" + secuencia + "')", Long.class);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,245 @@
+package com.literalura.service;
+
+import com.literalura.model.Idioma;
+import com.literalura.model.dto.LibroDTO;
+import com.literalura.model.dto.RespuestaAPI;
+import com.literalura.repository.LibroRepository;
+import com.literalura.repository.LibroUpsertRepository.DescargasActualizadas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Refresco periódico del número de descargas de los libros guardados
+ *
+ * Pide a Gutendx los libros ya conocidos en grupos con el parámetro ids=,
+ * compara en memoria las descargas recibidas con las guardadas y escribe
+ * solo las que cambiaron, todas en un único UPDATE al final de la ejecución.
+ *
+ * Cada ejecución gasta como máximo peticiones-por-ejecucion peticiones,
+ * separadas por pausa-entre-peticiones. Los libros más descargados
+ * (prioritarios) se refrescan en todas las ejecuciones; el resto del
+ * presupuesto avanza por el catálogo en orden de descargas con un cursor
+ * que continúa donde terminó la ejecución anterior.
+ */
+@Service
+public class ActualizacionDescargasService {
+
+    @Autowired
+    private ConsumoApi consumoApi;
+
+    @Autowired
+    private ConvierteDatos conversor;
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    @Autowired
+    private EstadisticasCatalogo estadisticasCatalogo;
+
+    @Autowired
+    private IndiceInvertidoLibros indiceLibros;
+
+    @Autowired
+    @Qualifier("gutendxBaseUrl")
+    private String urlBase;
+
+    @Value("${literalura.descargas.actualizacion.habilitada:false}")
+    private boolean habilitada;
+
+    // Gutendx devuelve como máximo 32 libros por página
+    @Value("${literalura.descargas.actualizacion.ids-por-peticion:32}")
+    private int idsPorPeticion;
+
+    @Value("${literalura.descargas.actualizacion.peticiones-por-ejecucion:60}")
+    private int peticionesPorEjecucion;
+
+    @Value("${literalura.descargas.actualizacion.pausa-entre-peticiones-ms:1000}")
+    private long pausaEntrePeticiones;
+
+    @Value("${literalura.descargas.actualizacion.prioritarios:320}")
+    private int prioritarios;
+
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+
+    // Último libro refrescado fuera de los prioritarios; null para empezar tras ellos
+    private Long cursorDescargas;
+    private Long cursorId;
+
+    /**
+     * Resultado de una ejecución
+     */
+    public record ResultadoActualizacion(int peticiones, int librosConsultados, int librosActualizados,
+                                         long segundos) {
+        public String getResumen() {
+            return String.format("Descargas refrescadas: %d libros consultados en %d peticiones, %d actualizados (%d s)",
+                    librosConsultados, peticiones, librosActualizados, segundos);
+        }
+    }
+
+    public ActualizacionDescargasService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Ejecución programada; no hace nada si el refresco está deshabilitado
+     */
+    @Scheduled(initialDelayString = "${literalura.descargas.actualizacion.retraso-inicial:PT10M}",
+            fixedDelayString = "${literalura.descargas.actualizacion.intervalo:PT6H}")
+    public void actualizarProgramado() {
+        if (!habilitada) {
+            return;
+        }
+        try {
+            System.out.println(actualizar().getResumen());
+        } catch (RuntimeException e) {
+            System.err.println("Error al refrescar las descargas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Refresca las descargas gastando como máximo el presupuesto de peticiones
+     * @return Resultado de la ejecución
+     */
+    public ResultadoActualizacion actualizar() {
+        if (!enCurso.compareAndSet(false, true)) {
+            throw new IllegalStateException("Ya hay un refresco de descargas en curso");
+        }
+        try {
+            return ejecutar();
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    private ResultadoActualizacion ejecutar() {
+        long inicio = System.nanoTime();
+        int maxLibros = Math.max(0, peticionesPorEjecucion) * idsPorPeticion;
+        List<Object[]> filas = seleccionarLibros(maxLibros);
+
+        // Descargas guardadas por gutendxId: referencia para el diff
+        Map<Long, Long> guardadas = new HashMap<>(filas.size() * 2);
+        for (Object[] fila : filas) {
+            guardadas.put((Long) fila[1], ((Number) fila[2]).longValue());
+        }
+
+        Map<Long, Long> cambios = new HashMap<>();
+        // Ordenados para que los grupos y sus URL no dependan del orden del HashMap
+        List<Long> gutendxIds = guardadas.keySet().stream().sorted().toList();
+        int peticiones = 0;
+        for (int desde = 0; desde < gutendxIds.size(); desde += idsPorPeticion) {
+            if (peticiones > 0) {
+                pausar();
+            }
+            List<Long> grupo = gutendxIds.subList(desde, Math.min(desde + idsPorPeticion, gutendxIds.size()));
+            peticiones++;
+            for (LibroDTO dto : consultar(grupo)) {
+                Long anterior = guardadas.get(dto.getId());
+                if (anterior != null && dto.getNumeroDescargas() != null
+                        && !anterior.equals(dto.getNumeroDescargas())) {
+                    cambios.put(dto.getId(), dto.getNumeroDescargas());
+                }
+            }
+        }
+
+        List<DescargasActualizadas> actualizadas = guardarCambios(cambios);
+
+        // Transacción confirmada: el índice en memoria ya puede reflejar los cambios
+        for (DescargasActualizadas libro : actualizadas) {
+            indiceLibros.actualizarDescargas(libro.id(), libro.descargas());
+        }
+
+        return new ResultadoActualizacion(peticiones, guardadas.size(), actualizadas.size(),
+                (System.nanoTime() - inicio) / 1_000_000_000L);
+    }
+
+    /**
+     * Prioritarios primero y luego los siguientes del cursor, volviendo
+     * al inicio cuando el cursor llega al final del catálogo
+     */
+    private List<Object[]> seleccionarLibros(int maxLibros) {
+        List<Object[]> filas = new ArrayList<>(libroRepository.findDescargasPrimeras(
+                PageRequest.of(0, Math.max(1, Math.min(prioritarios, maxLibros)))));
+        if (filas.isEmpty() || filas.size() >= maxLibros) {
+            return filas;
+        }
+
+        Object[] ultimoPrioritario = filas.get(filas.size() - 1);
+        if (cursorId == null) {
+            cursorDescargas = ((Number) ultimoPrioritario[2]).longValue();
+            cursorId = (Long) ultimoPrioritario[0];
+        }
+
+        List<Object[]> siguientes = libroRepository.findDescargasSiguientes(
+                cursorDescargas, cursorId, PageRequest.of(0, maxLibros - filas.size()));
+        if (siguientes.size() < maxLibros - filas.size()) {
+            // Fin del catálogo: la próxima ejecución vuelve a empezar tras los prioritarios
+            cursorDescargas = null;
+            cursorId = null;
+        } else {
+            Object[] ultimo = siguientes.get(siguientes.size() - 1);
+            cursorDescargas = ((Number) ultimo[2]).longValue();
+            cursorId = (Long) ultimo[0];
+        }
+        filas.addAll(siguientes);
+        return filas;
+    }
+
+    private List<LibroDTO> consultar(List<Long> gutendxIds) {
+        String ids = gutendxIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        String url = urlBase + (urlBase.contains("?") ? "&" : "?") + "ids=" + ids;
+        try {
+            // Sin caché: cada grupo ids= se pide una sola vez y desplazaría las páginas del catálogo,
+            // y una respuesta fresca de la caché podría traer descargas de hace minutos
+            RespuestaAPI respuesta = conversor.obtenerPaginaSinFormatos(consumoApi.obtenerDatosSinCache(url));
+            return respuesta.tieneResultados() ? respuesta.getResultados() : List.of();
+        } catch (RuntimeException e) {
+            // Un grupo fallido no invalida el resto: se reintenta en otra ejecución
+            System.err.println("No se pudieron consultar las descargas de " + gutendxIds.size()
+                    + " libros: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private List<DescargasActualizadas> guardarCambios(Map<Long, Long> cambios) {
+        if (cambios.isEmpty()) {
+            return List.of();
+        }
+        return transactionTemplate.execute(status -> {
+            List<DescargasActualizadas> actualizadas = libroRepository.actualizarDescargas(cambios);
+
+            Map<Idioma, Long> deltas = new HashMap<>();
+            for (DescargasActualizadas libro : actualizadas) {
+                long anteriores = libro.anteriores() != null ? libro.anteriores() : 0;
+                deltas.merge(libro.idioma(), libro.descargas() - anteriores, Long::sum);
+            }
+            estadisticasCatalogo.registrarCambioDescargas(deltas);
+            return actualizadas;
+        });
+    }
+
+    private void pausar() {
+        if (pausaEntrePeticiones <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pausaEntrePeticiones);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Refresco de descargas interrumpido: " + e.getMessage(), e);
+        }
+    }
+}
@@ -1,38 +1,156 @@
 package com.literalura.service;
+import com.literalura.model.dto.AutorResumen;
 import com.literalura.model.entity.Autor;
 import com.literalura.repository.AutorRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
 public class AutorService {
 
+    // Ids por consulta IN; Hibernate rellena la última lista hasta la siguiente potencia de 2
+    private static final int IDS_POR_CONSULTA = 1_024;
+
     @Autowired
     private AutorRepository autorRepository;
 
+    @Autowired
+    private IndiceVidaAutores indiceVida;
+
+    @Autowired
+    private EstadisticasCatalogo estadisticasCatalogo;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
-     * Obtiene todos los autores registrados
-     * @return Lista de todos los autores
+     * Obtiene todos los autores registrados, sin cargar sus libros
+     * (para listar con la cantidad de libros, obtenerResumenAutores)
+     * @return Lista de todos los autores ordenada por nombre
      */
     public List<Autor> obtenerTodosLosAutores() {
-        return autorRepository.findAll();
+        return autorRepository.findAll(Sort.by("nombre"));
+    }
+
+    /**
+     * Obtiene los autores con al menos un libro, con sus libros cargados en la misma consulta
+     * @return Lista de autores con libros
+     */
+    public List<Autor> obtenerAutoresConLibros() {
+        return autorRepository.findAutoresConLibros();
+    }
+
+    /**
+     * Obtiene el resumen de todos los autores con su cantidad de libros, en una sola consulta
+     * @return Lista de resúmenes ordenada por año de nacimiento
+     */
+    public List<AutorResumen> obtenerResumenAutores() {
+        return autorRepository.findResumenes();
+    }
+
+    /**
+     * Página de autores ordenados por año de nacimiento, paginando por clave (keyset)
+     * @param ultimo Último autor de la página anterior, o null para la primera página
+     * @param tamano Cantidad de autores por página
+     * @return Autores de la página
+     */
+    public List<Autor> obtenerAutoresPorNacimiento(Autor ultimo, int tamano) {
+        PageRequest limite = PageRequest.ofSize(tamano);
+        if (ultimo == null) {
+            return autorRepository.findPrimerosPorNacimiento(limite);
+        }
+        // Mismo valor que usa la consulta para los años desconocidos
+        int ano = ultimo.getAnoNacimiento() != null ? ultimo.getAnoNacimiento() : 999999;
+        return autorRepository.findSiguientesPorNacimiento(ano, ultimo.getId(), limite);
+    }
+
+    /**
+     * Recorre todos los autores por año de nacimiento sin cargarlos en memoria a la vez.
+     * Cada autor se desvincula del contexto de persistencia después de procesarlo.
+     * @param accion Acción a aplicar a cada autor
+     * @return Cantidad de autores recorridos
+     */
+    public long recorrerAutores(Consumer<Autor> accion) {
+        long recorridos = 0;
+        try (Stream<Autor> autores = autorRepository.streamPorNacimiento()) {
+            Iterator<Autor> iterador = autores.iterator();
+            while (iterador.hasNext()) {
+                Autor autor = iterador.next();
+                accion.accept(autor);
+                entityManager.detach(autor);
+                recorridos++;
+            }
+        }
+        return recorridos;
     }
 
     /**
-     * Busca autores que estaban vivos en un año determinado
+     * Busca autores que estaban vivos en un año determinado.
+     * Con el índice de años de vida habilitado no se recorre la tabla autores.
      * @param anio Año a consultar
      * @return Lista de autores vivos en el año especificado
      */
-    public List<Autor> buscarAutoresVivosEnAnio(Integer anio) {
+    public List<AutorResumen> buscarAutoresVivosEnAnio(Integer anio) {
         if (anio == null || anio < 0) {
             throw new IllegalArgumentException("El año debe ser un número positivo");
         }
 
-        return autorRepository.findAutoresVivosEnAnio(anio);
+        if (indiceVida.isHabilitado()) {
+            return buscarPorIds(indiceVida.vivosEn(anio));
+        }
+        return autorRepository.findResumenesVivosEnAno(anio);
+    }
+
+    /**
+     * Cuenta autores que estaban vivos en un año determinado
+     * @param anio Año a consultar
+     * @return Cantidad de autores vivos en el año especificado
+     */
+    public long contarAutoresVivosEnAnio(Integer anio) {
+        if (anio == null || anio < 0) {
+            throw new IllegalArgumentException("El año debe ser un número positivo");
+        }
+
+        if (indiceVida.isHabilitado()) {
+            return indiceVida.contarVivosEn(anio);
+        }
+        return autorRepository.contarAutoresVivosEnAno(anio);
+    }
+
+    /**
+     * Busca autores que estuvieron vivos en algún momento de un rango de años
+     * @param anioInicio Año de inicio del rango
+     * @param anioFin Año de fin del rango
+     * @return Lista de autores vivos en algún año del rango
+     */
+    public List<AutorResumen> buscarAutoresVivosEntre(Integer anioInicio, Integer anioFin) {
+        if (anioInicio == null || anioFin == null) {
+            throw new IllegalArgumentException("Los años no pueden ser nulos");
+        }
+
+        if (anioInicio > anioFin) {
+            throw new IllegalArgumentException("El año de inicio debe ser menor o igual al año de fin");
+        }
+
+        if (indiceVida.isHabilitado()) {
+            return buscarPorIds(indiceVida.vivosEntre(anioInicio, anioFin));
+        }
+        return autorRepository.findResumenesVivosEntre(anioInicio, anioFin);
     }
 
     /**
@@ -40,12 +158,12 @@ public class AutorService {
      * @param nombre Nombre del autor a buscar
      * @return Lista de autores que coinciden con el nombre
      */
-    public List<Autor> buscarAutoresPorNombre(String nombre) {
+    public List<AutorResumen> buscarAutoresPorNombre(String nombre) {
         if (nombre == null || nombre.trim().isEmpty()) {
             return List.of();
         }
 
-        return autorRepository.findByNombreContainsIgnoreCase(nombre.trim());
+        return autorRepository.findResumenesPorNombre(nombre.trim());
     }
 
     /**
@@ -54,7 +172,7 @@ public class AutorService {
      * @param anioFin Año de fin del rango
      * @return Lista de autores nacidos en el rango especificado
      */
-    public List<Autor> buscarAutoresPorRangoNacimiento(Integer anioInicio, Integer anioFin) {
+    public List<AutorResumen> buscarAutoresPorRangoNacimiento(Integer anioInicio, Integer anioFin) {
         if (anioInicio == null || anioFin == null) {
             throw new IllegalArgumentException("Los años no pueden ser nulos");
         }
@@ -63,7 +181,7 @@ public class AutorService {
             throw new IllegalArgumentException("El año de inicio debe ser menor o igual al año de fin");
         }
 
-        return autorRepository.findByAnioNacimientoBetween(anioInicio, anioFin);
+        return autorRepository.findResumenesNacidosEntre(anioInicio, anioFin);
     }
 
     /**
@@ -74,6 +192,14 @@ public class AutorService {
         return autorRepository.count();
     }
 
+    /**
+     * Obtiene la cantidad de autores por siglo de nacimiento desde los contadores precalculados
+     * @return Mapa ordenado de siglo a cantidad
+     */
+    public Map<Integer, Long> obtenerEstadisticasPorSiglo() {
+        return estadisticasCatalogo.getAutoresPorSiglo();
+    }
+
     /**
      * Verifica si un autor está vivo en un año específico
      * @param autor Autor a verificar
@@ -85,22 +211,33 @@ public class AutorService {
             return false;
         }
 
-        // Si no tiene año de nacimiento, no podemos determinar
-        if (autor.getAnioNacimiento() == null) {
-            return false;
-        }
+        // Misma regla que las consultas y el índice: el año de fallecimiento cuenta como vivo
+        return autor.estabaVivoEn(anio);
+    }
 
-        // Debe haber nacido antes o en el año consultado
-        if (autor.getAnioNacimiento() > anio) {
-            return false;
+    /**
+     * Resúmenes de los autores del índice de vida, consultados en bloques de IDS_POR_CONSULTA
+     * para no pasar el límite de parámetros de PostgreSQL (32.767) en rangos amplios
+     */
+    private List<AutorResumen> buscarPorIds(long[] ids) {
+        if (ids.length == 0) {
+            return List.of();
         }
-
-        // Si no tiene año de fallecimiento, se asume que sigue vivo
-        if (autor.getAnioFallecimiento() == null) {
-            return true;
+        long[] ordenados = ids.clone();
+        Arrays.sort(ordenados);
+        if (ordenados.length <= IDS_POR_CONSULTA) {
+            return autorRepository.findResumenesPorIds(Arrays.stream(ordenados).boxed().toList());
         }
 
-        // Debe haber fallecido después del año consultado
-        return autor.getAnioFallecimiento() > anio;
+        List<AutorResumen> resumenes = new ArrayList<>(ordenados.length);
+        for (int desde = 0; desde < ordenados.length; desde += IDS_POR_CONSULTA) {
+            int hasta = Math.min(desde + IDS_POR_CONSULTA, ordenados.length);
+            resumenes.addAll(autorRepository.findResumenesPorIds(
+                    Arrays.stream(ordenados, desde, hasta).boxed().toList()));
+        }
+        // Mismo orden que la consulta: año de nacimiento e id
+        resumenes.sort(Comparator.comparing(AutorResumen::anoNacimiento, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(AutorResumen::id));
+        return resumenes;
     }
-}
\ No newline at end of file
+}
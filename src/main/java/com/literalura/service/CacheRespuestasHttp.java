@@ -0,0 +1,357 @@
+package com.literalura.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Caché local de respuestas de la API Gutendx, en memoria y en disco
+ *
+ * Guarda el cuerpo de cada URL junto con sus validadores (ETag y
+ * Last-Modified). Mientras la entrada es fresca se sirve sin ir a la red;
+ * cuando expira, ConsumoApi la revalida con una petición condicional y,
+ * si la API no responde, puede servirla caducada.
+ *
+ * Las dos capas están acotadas: la memoria por número de entradas y el
+ * disco por bytes totales, borrando los archivos usados hace más tiempo.
+ */
+@Component
+public class CacheRespuestasHttp {
+
+    private static final int VERSION_FORMATO = 1;
+
+    /**
+     * Respuesta almacenada con sus validadores HTTP
+     */
+    public record Entrada(String url, String cuerpo, String etag, String ultimaModificacion,
+                          long almacenadaMillis) {
+
+        public boolean esFresca(long ttlMillis, long ahoraMillis) {
+            return ahoraMillis - almacenadaMillis < ttlMillis;
+        }
+
+        public boolean tieneValidadores() {
+            return etag != null || ultimaModificacion != null;
+        }
+
+        Entrada renovada(long ahoraMillis) {
+            return new Entrada(url, cuerpo, etag, ultimaModificacion, ahoraMillis);
+        }
+    }
+
+    private final boolean habilitada;
+    private final long ttlMillis;
+    private final int maxEntradasMemoria;
+    private final Path directorio;
+    private final long maxBytesDisco;
+    private final Map<String, Entrada> memoria;
+
+    // Archivos en disco por orden de uso y su tamaño; se carga del directorio en el primer uso
+    private final LinkedHashMap<Path, Long> archivosDisco = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytesDisco;
+    private boolean discoCargado;
+
+    private final LongAdder aciertosFrescos = new LongAdder();
+    private final LongAdder revalidaciones = new LongAdder();
+    private final LongAdder caducadasServidas = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder archivosBorrados = new LongAdder();
+    // Errores de lectura, escritura o borrado en disco: se cuentan y se muestra el último en el resumen
+    private final LongAdder erroresDisco = new LongAdder();
+    private volatile String ultimoErrorDisco;
+
+    public CacheRespuestasHttp(
+            @Value("${literalura.api.cache.habilitada:true}") boolean habilitada,
+            @Value("${literalura.api.cache.ttl-segundos:300}") long ttlSegundos,
+            @Value("${literalura.api.cache.max-entradas-memoria:500}") int maxEntradasMemoria,
+            @Value("${literalura.api.cache.directorio:${java.io.tmpdir}/literalura-http-cache}") String directorio,
+            @Value("${literalura.api.cache.max-bytes-disco:104857600}") long maxBytesDisco) {
+        this.habilitada = habilitada;
+        this.ttlMillis = ttlSegundos * 1000;
+        this.maxEntradasMemoria = maxEntradasMemoria;
+        this.directorio = directorio == null || directorio.isBlank() || maxBytesDisco <= 0
+                ? null : Paths.get(directorio);
+        this.maxBytesDisco = maxBytesDisco;
+        this.memoria = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > CacheRespuestasHttp.this.maxEntradasMemoria;
+            }
+        };
+    }
+
+    /**
+     * Busca la entrada de una URL, primero en memoria y después en disco
+     * @param url URL consultada
+     * @return Entrada almacenada o null si no existe
+     */
+    public Entrada obtener(String url) {
+        if (!habilitada) {
+            return null;
+        }
+        Entrada entrada;
+        synchronized (memoria) {
+            entrada = memoria.get(url);
+        }
+        if (entrada == null) {
+            entrada = leerDeDisco(url);
+            if (entrada != null) {
+                synchronized (memoria) {
+                    memoria.put(url, entrada);
+                }
+            }
+        }
+        return entrada;
+    }
+
+    /**
+     * Indica si la entrada puede servirse sin consultar la API
+     * @param entrada Entrada almacenada
+     * @return true si no ha expirado
+     */
+    public boolean esFresca(Entrada entrada) {
+        return entrada != null && entrada.esFresca(ttlMillis, System.currentTimeMillis());
+    }
+
+    /**
+     * Guarda una respuesta 200 con sus validadores
+     * @param url URL consultada
+     * @param cuerpo Cuerpo de la respuesta
+     * @param etag Cabecera ETag o null
+     * @param ultimaModificacion Cabecera Last-Modified o null
+     */
+    public void guardar(String url, String cuerpo, String etag, String ultimaModificacion) {
+        if (!habilitada) {
+            return;
+        }
+        Entrada entrada = new Entrada(url, cuerpo, etag, ultimaModificacion, System.currentTimeMillis());
+        synchronized (memoria) {
+            memoria.put(url, entrada);
+        }
+        escribirEnDisco(entrada);
+    }
+
+    /**
+     * Marca una entrada como fresca de nuevo tras un 304 Not Modified
+     * @param entrada Entrada revalidada
+     * @return Entrada renovada
+     */
+    public Entrada renovar(Entrada entrada) {
+        Entrada renovada = entrada.renovada(System.currentTimeMillis());
+        synchronized (memoria) {
+            memoria.put(renovada.url(), renovada);
+        }
+        escribirEnDisco(renovada);
+        return renovada;
+    }
+
+    public void registrarAciertoFresco() {
+        aciertosFrescos.increment();
+    }
+
+    public void registrarRevalidacion() {
+        revalidaciones.increment();
+    }
+
+    public void registrarCaducadaServida() {
+        caducadasServidas.increment();
+    }
+
+    public void registrarFallo() {
+        fallos.increment();
+    }
+
+    /**
+     * Información resumida para mostrar en consola
+     * @return String con los contadores de la caché
+     */
+    public String getResumen() {
+        long enDisco;
+        synchronized (archivosDisco) {
+            enDisco = bytesDisco;
+        }
+        long errores = erroresDisco.sum();
+        return String.format("Caché HTTP: %d aciertos, %d revalidadas (304), %d caducadas servidas, %d fallos"
+                        + " - disco: %.1f/%.1f MB, %d archivos borrados, %d errores%s",
+                aciertosFrescos.sum(), revalidaciones.sum(), caducadasServidas.sum(), fallos.sum(),
+                enDisco / 1_048_576.0, maxBytesDisco / 1_048_576.0, archivosBorrados.sum(), errores,
+                errores > 0 ? " (último: " + ultimoErrorDisco + ")" : "");
+    }
+
+    private Entrada leerDeDisco(String url) {
+        Path archivo = archivoPara(url);
+        if (archivo == null || !Files.exists(archivo)) {
+            return null;
+        }
+        try (DataInputStream entrada = new DataInputStream(Files.newInputStream(archivo))) {
+            if (entrada.readInt() != VERSION_FORMATO) {
+                return null;
+            }
+            String urlGuardada = entrada.readUTF();
+            String etag = leerOpcional(entrada);
+            String ultimaModificacion = leerOpcional(entrada);
+            long almacenada = entrada.readLong();
+            byte[] cuerpo = new byte[entrada.readInt()];
+            entrada.readFully(cuerpo);
+            // Colisión de hash improbable, pero se verifica la URL
+            if (!urlGuardada.equals(url)) {
+                return null;
+            }
+            registrarUsoEnDisco(archivo);
+            return new Entrada(url, new String(cuerpo, StandardCharsets.UTF_8), etag, ultimaModificacion, almacenada);
+        } catch (IOException e) {
+            registrarErrorDisco("lectura", e);
+            return null;
+        }
+    }
+
+    private void escribirEnDisco(Entrada entrada) {
+        Path archivo = archivoPara(entrada.url());
+        if (archivo == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(directorio);
+            Path temporal = Files.createTempFile(directorio, "entrada", ".tmp");
+            try (DataOutputStream salida = new DataOutputStream(Files.newOutputStream(temporal))) {
+                byte[] cuerpo = entrada.cuerpo().getBytes(StandardCharsets.UTF_8);
+                salida.writeInt(VERSION_FORMATO);
+                salida.writeUTF(entrada.url());
+                escribirOpcional(salida, entrada.etag());
+                escribirOpcional(salida, entrada.ultimaModificacion());
+                salida.writeLong(entrada.almacenadaMillis());
+                salida.writeInt(cuerpo.length);
+                salida.write(cuerpo);
+            }
+            // Reemplazo atómico para que un lector nunca vea un archivo a medias
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            registrarEscrituraEnDisco(archivo, Files.size(archivo));
+        } catch (IOException | UncheckedIOException e) {
+            registrarErrorDisco("escritura", e);
+        }
+    }
+
+    private void registrarUsoEnDisco(Path archivo) {
+        synchronized (archivosDisco) {
+            cargarDisco();
+            archivosDisco.get(archivo);
+        }
+    }
+
+    /**
+     * Suma el archivo escrito al total y borra los menos usados hasta volver al límite
+     */
+    private void registrarEscrituraEnDisco(Path archivo, long tamano) {
+        synchronized (archivosDisco) {
+            cargarDisco();
+            Long anterior = archivosDisco.put(archivo, tamano);
+            bytesDisco += tamano - (anterior != null ? anterior : 0);
+            aplicarLimite(archivo);
+        }
+    }
+
+    /**
+     * Borra los archivos usados hace más tiempo hasta que el total no pase de
+     * maxBytesDisco. Debe llamarse con el bloqueo de archivosDisco.
+     * @param conservar Archivo que no se borra (el recién escrito) o null
+     */
+    private void aplicarLimite(Path conservar) {
+        Iterator<Map.Entry<Path, Long>> antiguos = archivosDisco.entrySet().iterator();
+        while (bytesDisco > maxBytesDisco && antiguos.hasNext()) {
+            Map.Entry<Path, Long> antiguo = antiguos.next();
+            if (antiguo.getKey().equals(conservar)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(antiguo.getKey());
+                archivosBorrados.increment();
+            } catch (IOException e) {
+                registrarErrorDisco("borrado", e);
+            }
+            bytesDisco -= antiguo.getValue();
+            antiguos.remove();
+        }
+    }
+
+    /**
+     * Carga los archivos que ya había en el directorio, del más antiguo al más reciente
+     * por fecha de modificación, y aplica el límite si se redujo. Debe llamarse con el
+     * bloqueo de archivosDisco.
+     */
+    private void cargarDisco() {
+        if (discoCargado) {
+            return;
+        }
+        discoCargado = true;
+        if (!Files.isDirectory(directorio)) {
+            return;
+        }
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.filter(archivo -> archivo.toString().endsWith(".cache"))
+                    .map(archivo -> {
+                        try {
+                            return Map.entry(archivo, Files.readAttributes(archivo, BasicFileAttributes.class));
+                        } catch (IOException e) {
+                            return null;
+                        }
+                    })
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(entrada -> entrada.getValue().lastModifiedTime()))
+                    .forEach(entrada -> {
+                        archivosDisco.put(entrada.getKey(), entrada.getValue().size());
+                        bytesDisco += entrada.getValue().size();
+                    });
+        } catch (IOException e) {
+            registrarErrorDisco("lectura del directorio", e);
+        }
+        aplicarLimite(null);
+    }
+
+    private void registrarErrorDisco(String operacion, Exception e) {
+        erroresDisco.increment();
+        ultimoErrorDisco = operacion + ": " + e.getMessage();
+    }
+
+    private Path archivoPara(String url) {
+        if (directorio == null) {
+            return null;
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return directorio.resolve(HexFormat.of().formatHex(hash) + ".cache");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static String leerOpcional(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    private static void escribirOpcional(DataOutputStream salida, String valor) throws IOException {
+        salida.writeBoolean(valor != null);
+        if (valor != null) {
+            salida.writeUTF(valor);
+        }
+    }
+}
@@ -1,54 +1,499 @@
 package com.literalura.service;
+import com.literalura.config.MetricasClienteHttp;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 public class ConsumoApi {
 
+    private static final String SERVICIO = "Gutendx";
+
     private final HttpClient client;
+    private final MetricasClienteHttp metricasClienteHttp;
+    private final ExecutorService executor;
+    private final String userAgent;
+    private final LimitadorPorHost limitador;
+    private final CacheRespuestasHttp cache;
+    private final ResilienciaApi resiliencia;
+    private final LimitadorTasa limitadorTasa;
+
+    // Peticiones en curso por URL, para compartirlas entre llamadas simultáneas
+    private final ConcurrentMap<String, CompletableFuture<String>> enCursoPorUrl = new ConcurrentHashMap<>();
+    private final LongAdder peticionesCompartidas = new LongAdder();
 
-    public ConsumoApi() {
-        this.client = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
+    public ConsumoApi(HttpClient client,
+                      MetricasClienteHttp metricasClienteHttp,
+                      @Qualifier("apiExecutor") ExecutorService executor,
+                      @Qualifier("apiUserAgent") String userAgent,
+                      @Qualifier("apiMaxPeticionesPorHost") Integer maxPeticionesPorHost,
+                      @Value("${literalura.api.limite.peticiones-por-segundo:10}") double peticionesPorSegundo,
+                      @Value("${literalura.api.limite.rafaga:20}") int rafaga,
+                      CacheRespuestasHttp cache,
+                      ResilienciaApi resiliencia) {
+        this.client = client;
+        this.metricasClienteHttp = metricasClienteHttp;
+        this.executor = executor;
+        this.userAgent = userAgent;
+        this.limitador = new LimitadorPorHost(maxPeticionesPorHost, executor);
+        this.cache = cache;
+        this.resiliencia = resiliencia;
+        this.limitadorTasa = new LimitadorTasa(peticionesPorSegundo, rafaga);
     }
 
     /**
-     * Realiza una petición GET a la URL especificada
+     * Realiza una petición GET a la URL especificada.
+     * Si la respuesta está en caché y es fresca no se consulta la API; si
+     * expiró se revalida con una petición condicional, y si la API falla
+     * (también tras agotar los reintentos o con el circuito abierto) se
+     * devuelve la copia caducada. Las llamadas simultáneas a la misma URL
+     * comparten una sola petición.
      * @param url URL a consultar
      * @return Respuesta en formato JSON como String
      */
     public String obtenerDatos(String url) {
+        CacheRespuestasHttp.Entrada entrada = cache.obtener(url);
+        if (cache.esFresca(entrada)) {
+            cache.registrarAciertoFresco();
+            return entrada.cuerpo();
+        }
+
+        CompletableFuture<String> respuesta = compartir(url, () -> descargar(url, entrada));
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .timeout(Duration.ofSeconds(30))
-                    .header("Accept", "application/json")
-                    .GET()
-                    .build();
+            return respuesta.get();
+        } catch (InterruptedException e) {
+            respuesta.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Petición interrumpida: " + e.getMessage(), e);
+        } catch (ExecutionException e) {
+            Throwable causa = causa(e);
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException("Error inesperado: " + causa.getMessage(), causa);
+        }
+    }
+
+    /**
+     * Realiza una petición GET sin leer ni escribir la caché de respuestas,
+     * para descargas masivas (la ingesta del catálogo) que no deben llenar
+     * la caché con páginas que no se vuelven a pedir. Usa reintentos,
+     * interruptor y límite de tasa, pero no peticiones de cobertura.
+     * @param url URL a consultar
+     * @return Respuesta en formato JSON como String
+     */
+    public String obtenerDatosSinCache(String url) {
+        try {
+            return validarRespuesta(esperar(
+                    enviar(crearPeticion(url, null), DescompresionHttp.ofString(), false)));
+        } catch (IOException e) {
+            throw new RuntimeException("Error de conexión: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Petición interrumpida: " + e.getMessage(), e);
+        }
+    }
 
-            HttpResponse<String> response = client.send(request,
-                    HttpResponse.BodyHandlers.ofString());
+    /**
+     * Realiza una petición GET y devuelve el cuerpo como flujo.
+     * El método retorna en cuanto llegan las cabeceras, así que el cuerpo
+     * puede procesarse mientras se sigue descargando. El llamador debe
+     * cerrar el flujo. Esta ruta no usa la caché de respuestas ni
+     * peticiones de cobertura, pero sí reintentos e interruptor.
+     * @param url URL a consultar
+     * @return InputStream con el cuerpo JSON de la respuesta
+     */
+    public InputStream obtenerFlujo(String url) {
+        try {
+            HttpResponse<InputStream> response = esperar(
+                    enviar(crearPeticion(url, null), DescompresionHttp.ofInputStream(), false));
 
             if (response.statusCode() == 200) {
                 return response.body();
-            } else {
-                throw new RuntimeException("Error en la petición HTTP. Código: " +
-                        response.statusCode());
             }
+            response.body().close();
+            throw new RuntimeException("Error en la petición HTTP. Código: " +
+                    response.statusCode());
 
         } catch (IOException e) {
             throw new RuntimeException("Error de conexión: " + e.getMessage(), e);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new RuntimeException("Petición interrumpida: " + e.getMessage(), e);
-        } catch (Exception e) {
-            throw new RuntimeException("Error inesperado: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Realiza una petición GET asíncrona a la URL especificada.
+     * No ocupa ningún hilo mientras se espera la respuesta y respeta
+     * el límite de peticiones simultáneas por host. Usa la misma caché,
+     * la misma política de reintentos y las mismas peticiones compartidas
+     * que obtenerDatos.
+     * @param url URL a consultar
+     * @return Future con la respuesta en formato JSON como String
+     */
+    public CompletableFuture<String> obtenerDatosAsync(String url) {
+        CacheRespuestasHttp.Entrada entrada = cache.obtener(url);
+        if (cache.esFresca(entrada)) {
+            cache.registrarAciertoFresco();
+            return CompletableFuture.completedFuture(entrada.cuerpo());
+        }
+
+        return compartir(url, () -> limitador.ejecutar(URI.create(url).getHost(),
+                () -> descargar(url, entrada)));
+    }
+
+    /**
+     * Llamadas que se unieron a una petición ya en curso para la misma URL
+     * @return Cantidad de llamadas que no generaron petición propia
+     */
+    public long getPeticionesCompartidas() {
+        return peticionesCompartidas.sum();
+    }
+
+    public LimitadorTasa getLimitadorTasa() {
+        return limitadorTasa;
+    }
+
+    /**
+     * Une la llamada a la petición en curso para la URL o, si no hay
+     * ninguna, lanza la descarga y la publica para las siguientes.
+     * Cada llamador recibe su propia copia del future, así que cancelarla
+     * no afecta a los demás.
+     */
+    private CompletableFuture<String> compartir(String url, Supplier<CompletableFuture<String>> descarga) {
+        CompletableFuture<String> nueva = new CompletableFuture<>();
+        CompletableFuture<String> existente = enCursoPorUrl.putIfAbsent(url, nueva);
+        if (existente != null) {
+            peticionesCompartidas.increment();
+            return existente.copy();
+        }
+
+        CompletableFuture<String> envio;
+        try {
+            envio = descarga.get();
+        } catch (RuntimeException e) {
+            envio = CompletableFuture.failedFuture(e);
+        }
+        envio.whenComplete((cuerpo, error) -> {
+            // Se retira antes de completar: la respuesta ya está en la caché
+            enCursoPorUrl.remove(url, nueva);
+            if (error != null) {
+                nueva.completeExceptionally(causa(error));
+            } else {
+                nueva.complete(cuerpo);
+            }
+        });
+        return nueva.copy();
+    }
+
+    /**
+     * Descarga la URL y la guarda en caché; ante errores de red o circuito
+     * abierto devuelve la copia caducada si existe
+     */
+    private CompletableFuture<String> descargar(String url, CacheRespuestasHttp.Entrada entrada) {
+        HttpRequest request;
+        try {
+            request = crearPeticion(url, entrada);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return enviar(request, DescompresionHttp.ofString(), true)
+                .thenApply(response -> procesarRespuesta(url, entrada, response))
+                .exceptionally(error -> {
+                    Throwable causa = causa(error);
+                    if (entrada != null && (causa instanceof IOException
+                            || causa instanceof InterruptorCircuito.CircuitoAbiertoException)) {
+                        return servirCaducada(entrada, causa);
+                    }
+                    throw traducirError(error);
+                });
+    }
+
+    /**
+     * Peticiones asíncronas en curso hacia el host de la URL
+     * @param url URL de referencia
+     * @return Cantidad de peticiones en curso
+     */
+    public int getPeticionesEnCurso(String url) {
+        return limitador.getEnCurso(URI.create(url).getHost());
+    }
+
+    /**
+     * Envía la petición aplicando interruptor, reintentos y, si se pide, cobertura.
+     * Un 5xx que agota los reintentos se devuelve como respuesta para que el
+     * llamador decida (por ejemplo, servir la copia en caché).
+     */
+    private <T> CompletableFuture<HttpResponse<T>> enviar(HttpRequest request,
+                                                          HttpResponse.BodyHandler<T> handler,
+                                                          boolean cobertura) {
+        return intentar(request, handler, cobertura, 1);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> intentar(HttpRequest request,
+                                                            HttpResponse.BodyHandler<T> handler,
+                                                            boolean cobertura, int intento) {
+        CompletableFuture<HttpResponse<T>> envio;
+        try {
+            resiliencia.getInterruptor().verificar(SERVICIO);
+            envio = cobertura ? enviarConCobertura(request, handler) : enviarUna(request, handler);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return envio.handle((response, error) -> {
+            boolean reintentable = error != null ? causa(error) instanceof IOException : esErrorServidor(response);
+            if (!reintentable || !resiliencia.puedeReintentar(intento)) {
+                return error != null
+                        ? CompletableFuture.<HttpResponse<T>>failedFuture(error)
+                        : CompletableFuture.completedFuture(response);
+            }
+            if (response != null) {
+                descartar(response);
+            }
+            long espera = resiliencia.calcularEspera(intento);
+            return CompletableFuture.runAsync(() -> {},
+                            CompletableFuture.delayedExecutor(espera, TimeUnit.MILLISECONDS, executor))
+                    .thenCompose(ignorado -> intentar(request, handler, cobertura, intento + 1));
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * Lanza la petición y, si no responde tras el retraso de cobertura, una
+     * segunda idéntica. Gana la primera respuesta que no sea error; la otra
+     * se cancela.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> enviarConCobertura(HttpRequest request,
+                                                                      HttpResponse.BodyHandler<T> handler) {
+        long retraso = resiliencia.retrasoCobertura();
+        if (retraso < 0) {
+            return enviarUna(request, handler);
+        }
+
+        CompletableFuture<HttpResponse<T>> resultado = new CompletableFuture<>();
+        List<CompletableFuture<HttpResponse<T>>> envios = new CopyOnWriteArrayList<>();
+        AtomicInteger enCurso = new AtomicInteger(1);
+
+        Function<Boolean, CompletableFuture<HttpResponse<T>>> lanzar = esCobertura -> {
+            CompletableFuture<HttpResponse<T>> envio = enviarUna(request, handler);
+            envios.add(envio);
+            envio.whenComplete((response, error) -> {
+                boolean ultimo = enCurso.decrementAndGet() == 0;
+                if (error == null && !esErrorServidor(response)) {
+                    if (resultado.complete(response) && esCobertura) {
+                        resiliencia.registrarCoberturaGanadora();
+                    }
+                } else if (ultimo) {
+                    if (error != null) {
+                        resultado.completeExceptionally(error);
+                    } else {
+                        resultado.complete(response);
+                    }
+                }
+            });
+            return envio;
+        };
+
+        lanzar.apply(false);
+        CompletableFuture.delayedExecutor(retraso, TimeUnit.MILLISECONDS, executor).execute(() -> {
+            if (!resultado.isDone() && resiliencia.getInterruptor().permitir()) {
+                enCurso.incrementAndGet();
+                resiliencia.registrarCoberturaLanzada();
+                lanzar.apply(true);
+            }
+        });
+
+        resultado.whenComplete((response, error) -> envios.forEach(envio -> envio.cancel(true)));
+        return resultado;
+    }
+
+    /**
+     * Un único envío tras reservar su ficha en el limitador de tasa.
+     * Cancelar el resultado durante la espera evita el envío y, después,
+     * aborta la petición.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> enviarUna(HttpRequest request,
+                                                             HttpResponse.BodyHandler<T> handler) {
+        long espera = limitadorTasa.reservar();
+        if (espera <= 0) {
+            return enviarAhora(request, handler);
+        }
+
+        CompletableFuture<HttpResponse<T>> resultado = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(espera, TimeUnit.NANOSECONDS, executor).execute(() -> {
+            if (resultado.isDone()) {
+                resiliencia.getInterruptor().registrarCancelada();
+                return;
+            }
+            CompletableFuture<HttpResponse<T>> envio = enviarAhora(request, handler);
+            resultado.whenComplete((response, error) -> envio.cancel(true));
+            envio.whenComplete((response, error) -> {
+                if (error != null) {
+                    resultado.completeExceptionally(error);
+                } else {
+                    resultado.complete(response);
+                }
+            });
+        });
+        return resultado;
+    }
+
+    /**
+     * Envía la petición sin esperas; registra latencia y resultado en el interruptor
+     */
+    private <T> CompletableFuture<HttpResponse<T>> enviarAhora(HttpRequest request,
+                                                               HttpResponse.BodyHandler<T> handler) {
+        long inicio = System.nanoTime();
+        // Se devuelve el future del cliente para que cancelarlo aborte la petición
+        CompletableFuture<HttpResponse<T>> envio = client.sendAsync(request, handler);
+        envio.whenComplete((response, error) -> {
+            InterruptorCircuito interruptor = resiliencia.getInterruptor();
+            if (error != null) {
+                if (causa(error) instanceof CancellationException) {
+                    interruptor.registrarCancelada();
+                } else {
+                    interruptor.registrarFallo();
+                }
+                return;
+            }
+            metricasClienteHttp.registrarRespuesta(response.version(), DescompresionHttp.estaComprimida(response));
+            if (esErrorServidor(response)) {
+                interruptor.registrarFallo();
+            } else {
+                resiliencia.registrarLatencia(System.nanoTime() - inicio);
+                interruptor.registrarExito();
+            }
+        });
+        return envio;
+    }
+
+    private static boolean esErrorServidor(HttpResponse<?> response) {
+        return response.statusCode() >= 500;
+    }
+
+    private static void descartar(HttpResponse<?> response) {
+        if (response.body() instanceof InputStream flujo) {
+            try {
+                flujo.close();
+            } catch (IOException e) {
+                // El cuerpo se descarta de todas formas
+            }
+        }
+    }
+
+    /**
+     * Espera el resultado devolviendo los errores de red como IOException
+     */
+    private static <T> T esperar(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable causa = causa(e);
+            if (causa instanceof IOException io) {
+                throw io;
+            }
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException("Error inesperado: " + causa.getMessage(), causa);
+        }
+    }
+
+    private HttpRequest crearPeticion(String url, CacheRespuestasHttp.Entrada entrada) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(Duration.ofMillis(resiliencia.getTimeoutIntentoMillis()))
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", DescompresionHttp.CODIFICACIONES_ACEPTADAS)
+                .header("User-Agent", userAgent);
+
+        // Petición condicional: la API responde 304 sin cuerpo si no hubo cambios
+        if (entrada != null && entrada.etag() != null) {
+            builder.header("If-None-Match", entrada.etag());
+        }
+        if (entrada != null && entrada.ultimaModificacion() != null) {
+            builder.header("If-Modified-Since", entrada.ultimaModificacion());
+        }
+
+        return builder.GET().build();
+    }
+
+    private String procesarRespuesta(String url, CacheRespuestasHttp.Entrada entrada,
+                                     HttpResponse<String> response) {
+        if (response.statusCode() == 304 && entrada != null) {
+            cache.registrarRevalidacion();
+            return cache.renovar(entrada).cuerpo();
+        }
+        if (response.statusCode() >= 500 && entrada != null) {
+            return servirCaducada(entrada, null);
+        }
+
+        String cuerpo = validarRespuesta(response);
+        cache.registrarFallo();
+        cache.guardar(url, cuerpo,
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null));
+        return cuerpo;
+    }
+
+    private String servirCaducada(CacheRespuestasHttp.Entrada entrada, Throwable causa) {
+        cache.registrarCaducadaServida();
+        System.err.println("API no disponible" + (causa != null ? " (" + causa.getMessage() + ")" : "")
+                + ", se usa la copia en caché de " + entrada.url());
+        return entrada.cuerpo();
+    }
+
+    private String validarRespuesta(HttpResponse<String> response) {
+        if (response.statusCode() == 200) {
+            return response.body();
+        } else {
+            throw new RuntimeException("Error en la petición HTTP. Código: " +
+                    response.statusCode());
+        }
+    }
+
+    private static Throwable causa(Throwable error) {
+        Throwable causa = error;
+        while ((causa instanceof CompletionException || causa instanceof ExecutionException)
+                && causa.getCause() != null) {
+            causa = causa.getCause();
+        }
+        return causa;
+    }
+
+    private RuntimeException traducirError(Throwable error) {
+        Throwable causa = causa(error);
+        if (causa instanceof IOException) {
+            return new CompletionException(new RuntimeException("Error de conexión: " + causa.getMessage(), causa));
+        }
+        if (causa instanceof RuntimeException) {
+            return new CompletionException(causa);
+        }
+        return new CompletionException(new RuntimeException("Error inesperado: " + causa.getMessage(), causa));
+    }
+}
@@ -1,16 +1,44 @@
 package com.literalura.service;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.literalura.model.dto.FormatosLibro;
+import com.literalura.model.dto.LibroDTO;
+import com.literalura.model.dto.RespuestaAPI;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Conversión entre JSON y objetos con el ObjectMapper compartido de JacksonConfig
+ *
+ * Los ObjectReader son inmutables y seguros entre hilos; se guarda uno por
+ * clase para no buscar el deserializador en cada llamada. Los de
+ * RespuestaAPI y LibroDTO se crean al arrancar, con sus deserializadores
+ * ya resueltos.
+ */
 @Service
 public class ConvierteDatos implements IConvierteDatos {
 
     private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectReader> lectores = new ConcurrentHashMap<>();
+    private final ObjectReader lectorLibro;
+    private final ObjectReader lectorLibroSinFormatos;
+    private final ObjectReader lectorPaginaSinFormatos;
 
-    public ConvierteDatos() {
-        this.objectMapper = new ObjectMapper();
+    public ConvierteDatos(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.lectorLibro = lector(LibroDTO.class);
+        this.lectorLibroSinFormatos = lectorLibro.withAttribute(FormatosLibro.OMITIR, Boolean.TRUE);
+        this.lectorPaginaSinFormatos = lector(RespuestaAPI.class).withAttribute(FormatosLibro.OMITIR, Boolean.TRUE);
     }
 
     /**
@@ -22,12 +50,78 @@ public class ConvierteDatos implements IConvierteDatos {
     @Override
     public <T> T obtenerDatos(String json, Class<T> clase) {
         try {
-            return objectMapper.readValue(json, clase);
+            return lector(clase).readValue(json);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error al convertir JSON a objeto: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Convierte una página de la API para la ingesta masiva: igual que
+     * obtenerDatos(json, RespuestaAPI.class) pero sin leer los formatos
+     * de los libros, que la ingesta no guarda
+     * @param json String JSON de la página
+     * @return RespuestaAPI con los libros de la página
+     */
+    public RespuestaAPI obtenerPaginaSinFormatos(String json) {
+        try {
+            return lectorPaginaSinFormatos.readValue(json);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Error al convertir JSON a objeto: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Lee una página de la API en streaming, sin cargar el JSON completo en memoria.
+     * Cada libro del array "results" se entrega al consumidor en cuanto se termina
+     * de leer, mientras el resto de la página sigue llegando por la red.
+     * Los formatos de los libros se omiten.
+     * @param cuerpo Flujo con el JSON de la página
+     * @param consumidor Recibe cada LibroDTO en el orden del array
+     * @return RespuestaAPI con count, next y previous (resultados queda vacío)
+     */
+    public RespuestaAPI leerPaginaEnStreaming(InputStream cuerpo, Consumer<LibroDTO> consumidor) {
+        RespuestaAPI cabecera = new RespuestaAPI(null, null, null, List.of());
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(cuerpo)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException("Error al convertir JSON a objeto: se esperaba un objeto");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+
+                switch (campo) {
+                    case "count" -> cabecera.setTotalResultados(
+                            valor == JsonToken.VALUE_NULL ? null : parser.getValueAsInt());
+                    case "next" -> cabecera.setSiguientePagina(parser.getValueAsString());
+                    case "previous" -> cabecera.setPaginaAnterior(parser.getValueAsString());
+                    case "results" -> {
+                        if (valor == JsonToken.START_ARRAY) {
+                            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                consumidor.accept(lectorLibroSinFormatos.readValue(parser));
+                            }
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            return cabecera;
+
+        } catch (IOException e) {
+            throw new RuntimeException("Error al convertir JSON a objeto: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * ObjectReader en caché para la clase; con EAGER_DESERIALIZER_FETCH
+     * (activo por defecto) el deserializador se resuelve al crearlo
+     */
+    private ObjectReader lector(Class<?> clase) {
+        return lectores.computeIfAbsent(clase, objectMapper::readerFor);
+    }
+
     /**
      * Convierte un objeto a JSON string
      * @param objeto Objeto a convertir
@@ -0,0 +1,147 @@
+package com.literalura.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Manejadores de cuerpo que descomprimen respuestas gzip y deflate
+ *
+ * HttpClient envía la cabecera Accept-Encoding que se le indique pero no
+ * descomprime las respuestas; estos manejadores lo hacen según la
+ * cabecera Content-Encoding y dejan pasar sin cambios las que no vienen
+ * comprimidas.
+ */
+final class DescompresionHttp {
+
+    /**
+     * Valor de Accept-Encoding para las peticiones
+     */
+    static final String CODIFICACIONES_ACEPTADAS = "gzip, deflate";
+
+    private DescompresionHttp() {}
+
+    /**
+     * Cuerpo como String, descomprimido si hace falta
+     */
+    static HttpResponse.BodyHandler<String> ofString() {
+        return info -> {
+            String codificacion = codificacion(info.headers());
+            Charset charset = charset(info.headers().firstValue("Content-Type").orElse(null));
+            if (codificacion == null) {
+                return HttpResponse.BodySubscribers.ofString(charset);
+            }
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(),
+                    bytes -> new String(descomprimir(bytes, codificacion), charset));
+        };
+    }
+
+    /**
+     * Cuerpo como flujo, descomprimido mientras se lee
+     */
+    static HttpResponse.BodyHandler<InputStream> ofInputStream() {
+        return info -> {
+            String codificacion = codificacion(info.headers());
+            if (codificacion == null) {
+                return HttpResponse.BodySubscribers.ofInputStream();
+            }
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(),
+                    flujo -> descomprimirAlLeer(flujo, codificacion));
+        };
+    }
+
+    /**
+     * Indica si la respuesta llegó comprimida
+     */
+    static boolean estaComprimida(HttpResponse<?> response) {
+        return codificacion(response.headers()) != null;
+    }
+
+    private static String codificacion(HttpHeaders headers) {
+        String valor = headers.firstValue("Content-Encoding").orElse(null);
+        if (valor == null) {
+            return null;
+        }
+        valor = valor.trim().toLowerCase(Locale.ROOT);
+        return valor.equals("gzip") || valor.equals("x-gzip") || valor.equals("deflate") ? valor : null;
+    }
+
+    private static Charset charset(String contentType) {
+        if (contentType != null) {
+            for (String parametro : contentType.split(";")) {
+                String limpio = parametro.trim();
+                if (limpio.regionMatches(true, 0, "charset=", 0, 8)) {
+                    try {
+                        return Charset.forName(limpio.substring(8).replace("\"", ""));
+                    } catch (IllegalArgumentException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static byte[] descomprimir(byte[] comprimido, String codificacion) {
+        try (InputStream flujo = abrir(new ByteArrayInputStream(comprimido), codificacion)) {
+            return flujo.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al descomprimir la respuesta: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * GZIPInputStream lee la cabecera al crearse, lo que bloquearía el hilo
+     * que entrega la respuesta; el flujo descomprimido se abre en la primera lectura
+     */
+    private static InputStream descomprimirAlLeer(InputStream comprimido, String codificacion) {
+        return new InputStream() {
+            private InputStream descomprimido;
+
+            private InputStream abierto() throws IOException {
+                if (descomprimido == null) {
+                    descomprimido = abrir(comprimido, codificacion);
+                }
+                return descomprimido;
+            }
+
+            @Override
+            public int read() throws IOException {
+                return abierto().read();
+            }
+
+            @Override
+            public int read(byte[] destino, int desde, int cantidad) throws IOException {
+                return abierto().read(destino, desde, cantidad);
+            }
+
+            @Override
+            public int available() throws IOException {
+                return descomprimido != null ? descomprimido.available() : 0;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (descomprimido != null) {
+                    descomprimido.close();
+                } else {
+                    comprimido.close();
+                }
+            }
+        };
+    }
+
+    private static InputStream abrir(InputStream comprimido, String codificacion) throws IOException {
+        return codificacion.equals("deflate")
+                ? new InflaterInputStream(comprimido)
+                : new GZIPInputStream(comprimido, 8192);
+    }
+}
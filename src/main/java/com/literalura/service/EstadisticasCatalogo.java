@@ -0,0 +1,404 @@
+package com.literalura.service;
+
+import com.literalura.model.Idioma;
+import com.literalura.model.entity.Autor;
+import com.literalura.model.entity.EstadisticaCatalogo;
+import com.literalura.model.entity.Libro;
+import com.literalura.repository.AutorRepository;
+import com.literalura.repository.EstadisticaCatalogoRepository;
+import com.literalura.repository.LibroRepository;
+import com.literalura.repository.LibroUpsertRepository.ResultadoUpsert;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Estadísticas del catálogo mantenidas al escribir
+ *
+ * Guarda libros y descargas por idioma y autores por siglo de nacimiento
+ * en contadores atómicos en memoria y en la tabla estadisticas_catalogo.
+ * La tabla se incrementa en la misma transacción que guarda los datos y la
+ * memoria cuando esa transacción se confirma, así que las consultas de los
+ * paneles no necesitan ejecutar GROUP BY sobre libros ni autores.
+ *
+ * Hay una fila por idioma y por siglo que todas las ingestas actualizan. Para
+ * no retener sus bloqueos durante toda la transacción, los incrementos se
+ * acumulan en memoria y se escriben justo antes de confirmar, un solo
+ * sumar() por clave y en orden de clave.
+ *
+ * reconstruir() recalcula todo desde las tablas de origen; conviene
+ * ejecutarlo sin ingestas en curso.
+ */
+@Service
+public class EstadisticasCatalogo {
+
+    @Autowired
+    private EstadisticaCatalogoRepository estadisticaRepository;
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    /**
+     * Contadores de un idioma
+     */
+    private static final class ContadorIdioma {
+        final LongAdder libros = new LongAdder();
+        final LongAdder descargas = new LongAdder();
+    }
+
+    private final Map<Idioma, ContadorIdioma> idiomas = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> siglos = new ConcurrentHashMap<>();
+    private final LongAdder totalLibros = new LongAdder();
+    private final LongAdder totalDescargas = new LongAdder();
+    private final LongAdder totalAutores = new LongAdder();
+
+    // Los incrementos comparten el bloqueo; la recarga completa lo toma en exclusiva
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Incrementos de una transacción: se escriben en la tabla antes de confirmar
+     * y se aplican en memoria después. Los TreeMap fijan el orden de bloqueo de las
+     * filas, igual en todas las transacciones.
+     */
+    private final class Pendientes implements TransactionSynchronization {
+        final Map<Idioma, long[]> idiomas = new TreeMap<>();
+        final Map<Integer, long[]> siglos = new TreeMap<>();
+
+        EstadisticasCatalogo propietario() {
+            return EstadisticasCatalogo.this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            idiomas.forEach((idioma, delta) -> estadisticaRepository.sumar(
+                    EstadisticaCatalogo.TIPO_IDIOMA, idioma.getCodigo(), delta[0], delta[1]));
+            siglos.forEach((siglo, delta) -> estadisticaRepository.sumar(
+                    EstadisticaCatalogo.TIPO_SIGLO, String.valueOf(siglo), delta[0], 0));
+        }
+
+        @Override
+        public void afterCommit() {
+            idiomas.forEach((idioma, delta) -> sumarIdioma(idioma, delta[0], delta[1]));
+            siglos.forEach((siglo, delta) -> sumarSiglo(siglo, delta[0]));
+        }
+    }
+
+    /**
+     * Carga los contadores desde la tabla, o los reconstruye si está vacía
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        List<EstadisticaCatalogo> filas = estadisticaRepository.findAll();
+        if (filas.isEmpty() && libroRepository.count() > 0) {
+            reconstruir();
+            return;
+        }
+        reemplazarEnMemoria(filas);
+        System.out.println("Estadísticas del catálogo cargadas: " + getResumen());
+    }
+
+    /**
+     * Suma libros recién guardados a los contadores por idioma
+     * @param libros Libros guardados en la transacción actual
+     */
+    @Transactional
+    public void registrarLibros(Collection<Libro> libros) {
+        if (libros.isEmpty()) {
+            return;
+        }
+        Map<Idioma, long[]> porIdioma = new HashMap<>();
+        for (Libro libro : libros) {
+            Idioma idioma = libro.getIdioma() != null ? libro.getIdioma() : Idioma.OTROS;
+            long[] delta = porIdioma.computeIfAbsent(idioma, i -> new long[2]);
+            delta[0]++;
+            delta[1] += libro.getNumeroDescargas() != null ? libro.getNumeroDescargas() : 0;
+        }
+        porIdioma.forEach((idioma, delta) -> acumularIdioma(idioma, delta[0], delta[1]));
+    }
+
+    /**
+     * Aplica cambios de descargas de libros ya contados
+     * @param deltas Diferencia de descargas por idioma (puede ser negativa)
+     */
+    @Transactional
+    public void registrarCambioDescargas(Map<Idioma, Long> deltas) {
+        deltas.forEach((idioma, delta) -> acumularIdioma(idioma, 0, delta));
+    }
+
+    /**
+     * Aplica los cambios de descargas de los libros existentes que actualizó un upsert
+     * (los insertados se cuentan con registrarLibros)
+     * @param resultados Filas devueltas por upsertPorGutendxId
+     */
+    @Transactional
+    public void registrarDescargasActualizadas(Collection<ResultadoUpsert> resultados) {
+        Map<Idioma, Long> deltas = new HashMap<>();
+        for (ResultadoUpsert resultado : resultados) {
+            if (!resultado.insertado()) {
+                long anteriores = resultado.anteriores() != null ? resultado.anteriores() : 0;
+                long descargas = resultado.descargas() != null ? resultado.descargas() : 0;
+                deltas.merge(resultado.idioma(), descargas - anteriores, Long::sum);
+            }
+        }
+        if (!deltas.isEmpty()) {
+            registrarCambioDescargas(deltas);
+        }
+    }
+
+    /**
+     * Suma autores recién guardados a los contadores por siglo
+     * @param autores Autores guardados en la transacción actual
+     */
+    @Transactional
+    public void registrarAutores(Collection<Autor> autores) {
+        Map<Integer, long[]> porSiglo = new HashMap<>();
+        for (Autor autor : autores) {
+            if (autor.getAnoNacimiento() != null) {
+                porSiglo.computeIfAbsent(siglo(autor.getAnoNacimiento()), s -> new long[1])[0]++;
+            }
+        }
+        porSiglo.forEach((siglo, delta) -> acumularSiglo(siglo, delta[0]));
+    }
+
+    /**
+     * Recalcula todos los contadores a partir de las tablas libros y autores
+     * y reemplaza los valores guardados y en memoria
+     */
+    @Transactional
+    public void reconstruir() {
+        estadisticaRepository.eliminarTipo(EstadisticaCatalogo.TIPO_IDIOMA);
+        estadisticaRepository.eliminarTipo(EstadisticaCatalogo.TIPO_SIGLO);
+
+        List<EstadisticaCatalogo> filas = new ArrayList<>();
+        for (Object[] fila : libroRepository.obtenerTotalesPorIdioma()) {
+            filas.add(new EstadisticaCatalogo(EstadisticaCatalogo.TIPO_IDIOMA, ((Idioma) fila[0]).getCodigo(),
+                    ((Number) fila[1]).longValue(), ((Number) fila[2]).longValue()));
+        }
+        for (Object[] fila : autorRepository.obtenerEstadisticasPorSiglo()) {
+            filas.add(new EstadisticaCatalogo(EstadisticaCatalogo.TIPO_SIGLO,
+                    String.valueOf(((Number) fila[0]).intValue()), ((Number) fila[1]).longValue(), 0));
+        }
+        estadisticaRepository.saveAll(filas);
+
+        alConfirmar(() -> {
+            reemplazarEnMemoria(filas);
+            System.out.println("Estadísticas del catálogo reconstruidas: " + getResumen());
+        });
+    }
+
+    /**
+     * Cantidad de libros de un idioma
+     * @param idioma Idioma a consultar
+     * @return Cantidad de libros
+     */
+    public long contarLibros(Idioma idioma) {
+        ContadorIdioma contador = idiomas.get(idioma);
+        return contador != null ? contador.libros.sum() : 0;
+    }
+
+    /**
+     * Descargas acumuladas de los libros de un idioma
+     * @param idioma Idioma a consultar
+     * @return Suma de descargas
+     */
+    public long contarDescargas(Idioma idioma) {
+        ContadorIdioma contador = idiomas.get(idioma);
+        return contador != null ? contador.descargas.sum() : 0;
+    }
+
+    /**
+     * Cantidad de libros por idioma, de más a menos libros
+     * @return Mapa ordenado de idioma a cantidad
+     */
+    public Map<Idioma, Long> getLibrosPorIdioma() {
+        Map<Idioma, Long> resultado = new LinkedHashMap<>();
+        idiomas.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue().libros.sum()))
+                .filter(e -> e.getValue() > 0)
+                .sorted(Map.Entry.<Idioma, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .forEach(e -> resultado.put(e.getKey(), e.getValue()));
+        return resultado;
+    }
+
+    /**
+     * Idiomas con más libros
+     * @param limite Cantidad máxima de idiomas
+     * @return Idiomas, de más a menos libros
+     */
+    public List<Idioma> getIdiomasPopulares(int limite) {
+        return getLibrosPorIdioma().keySet().stream().limit(limite).toList();
+    }
+
+    /**
+     * Cantidad de autores por siglo de nacimiento
+     * @return Mapa ordenado de siglo (1800, 1900...) a cantidad
+     */
+    public Map<Integer, Long> getAutoresPorSiglo() {
+        Map<Integer, Long> resultado = new TreeMap<>();
+        siglos.forEach((siglo, contador) -> {
+            long cantidad = contador.sum();
+            if (cantidad > 0) {
+                resultado.put(siglo, cantidad);
+            }
+        });
+        return resultado;
+    }
+
+    public long getTotalLibros() {
+        return totalLibros.sum();
+    }
+
+    public long getTotalDescargas() {
+        return totalDescargas.sum();
+    }
+
+    public long getTotalAutoresConNacimiento() {
+        return totalAutores.sum();
+    }
+
+    /**
+     * Información resumida para mostrar en consola
+     * @return String con los totales
+     */
+    public String getResumen() {
+        return String.format("%d libros en %d idiomas, %d descargas, %d autores con año de nacimiento",
+                getTotalLibros(), idiomas.size(), getTotalDescargas(), getTotalAutoresConNacimiento());
+    }
+
+    private void acumularIdioma(Idioma idioma, long libros, long descargas) {
+        Pendientes pendientes = pendientes();
+        if (pendientes == null) {
+            estadisticaRepository.sumar(EstadisticaCatalogo.TIPO_IDIOMA, idioma.getCodigo(), libros, descargas);
+            sumarIdioma(idioma, libros, descargas);
+            return;
+        }
+        long[] delta = pendientes.idiomas.computeIfAbsent(idioma, i -> new long[2]);
+        delta[0] += libros;
+        delta[1] += descargas;
+    }
+
+    private void acumularSiglo(int siglo, long autores) {
+        Pendientes pendientes = pendientes();
+        if (pendientes == null) {
+            estadisticaRepository.sumar(EstadisticaCatalogo.TIPO_SIGLO, String.valueOf(siglo), autores, 0);
+            sumarSiglo(siglo, autores);
+            return;
+        }
+        pendientes.siglos.computeIfAbsent(siglo, s -> new long[1])[0] += autores;
+    }
+
+    /**
+     * Incrementos pendientes de la transacción actual, registrándolos la primera vez.
+     * Se buscan entre las sincronizaciones y no como recurso enlazado al hilo porque
+     * una transacción anidada (REQUIRES_NEW) suspende las sincronizaciones pero no
+     * los recursos ajenos al gestor de transacciones.
+     * @return Pendientes de la transacción o null si no hay transacción activa
+     */
+    private Pendientes pendientes() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sincronizacion instanceof Pendientes pendientes && pendientes.propietario() == this) {
+                return pendientes;
+            }
+        }
+        Pendientes pendientes = new Pendientes();
+        TransactionSynchronizationManager.registerSynchronization(pendientes);
+        return pendientes;
+    }
+
+    private void sumarIdioma(Idioma idioma, long libros, long descargas) {
+        lock.readLock().lock();
+        try {
+            ContadorIdioma contador = idiomas.computeIfAbsent(idioma, i -> new ContadorIdioma());
+            contador.libros.add(libros);
+            contador.descargas.add(descargas);
+            totalLibros.add(libros);
+            totalDescargas.add(descargas);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void sumarSiglo(int siglo, long autores) {
+        lock.readLock().lock();
+        try {
+            siglos.computeIfAbsent(siglo, s -> new LongAdder()).add(autores);
+            totalAutores.add(autores);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reemplazarEnMemoria(List<EstadisticaCatalogo> filas) {
+        lock.writeLock().lock();
+        try {
+            idiomas.clear();
+            siglos.clear();
+            totalLibros.reset();
+            totalDescargas.reset();
+            totalAutores.reset();
+            for (EstadisticaCatalogo fila : filas) {
+                if (EstadisticaCatalogo.TIPO_IDIOMA.equals(fila.getTipo())) {
+                    ContadorIdioma contador = idiomas.computeIfAbsent(
+                            Idioma.desdeCodigoOOtros(fila.getClave()), i -> new ContadorIdioma());
+                    contador.libros.add(fila.getCantidad());
+                    contador.descargas.add(fila.getDescargas());
+                    totalLibros.add(fila.getCantidad());
+                    totalDescargas.add(fila.getDescargas());
+                } else if (EstadisticaCatalogo.TIPO_SIGLO.equals(fila.getTipo())) {
+                    siglos.computeIfAbsent(Integer.parseInt(fila.getClave()), s -> new LongAdder())
+                            .add(fila.getCantidad());
+                    totalAutores.add(fila.getCantidad());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Los contadores en memoria solo cambian si la transacción se confirma
+     */
+    private void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    /**
+     * Mismo cálculo que AutorRepository.obtenerEstadisticasPorSiglo: FLOOR(año / 100) * 100
+     */
+    private static int siglo(int anoNacimiento) {
+        return Math.floorDiv(anoNacimiento, 100) * 100;
+    }
+}
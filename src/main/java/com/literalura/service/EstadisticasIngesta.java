@@ -0,0 +1,96 @@
+package com.literalura.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Métricas de una ejecución de ingesta masiva del catálogo
+ *
+ * Los contadores son atómicos para poder actualizarse desde varios hilos.
+ * Las tasas se calculan sobre el tiempo transcurrido desde el inicio.
+ */
+public class EstadisticasIngesta {
+
+    private final long inicioNanos = System.nanoTime();
+    private final AtomicLong paginas = new AtomicLong();
+    private final AtomicLong librosRecibidos = new AtomicLong();
+    private final AtomicLong librosGuardados = new AtomicLong();
+    private final AtomicLong librosOmitidos = new AtomicLong();
+    private volatile long finNanos;
+
+    /**
+     * Registra una página procesada
+     * @param recibidos Libros que traía la página
+     * @param guardados Libros nuevos persistidos
+     */
+    public void registrarPagina(int recibidos, int guardados) {
+        paginas.incrementAndGet();
+        librosRecibidos.addAndGet(recibidos);
+        librosGuardados.addAndGet(guardados);
+        librosOmitidos.addAndGet(recibidos - guardados);
+    }
+
+    /**
+     * Marca el final de la ingesta para congelar las tasas
+     */
+    public void finalizar() {
+        finNanos = System.nanoTime();
+    }
+
+    public long getPaginas() {
+        return paginas.get();
+    }
+
+    public long getLibrosRecibidos() {
+        return librosRecibidos.get();
+    }
+
+    public long getLibrosGuardados() {
+        return librosGuardados.get();
+    }
+
+    public long getLibrosOmitidos() {
+        return librosOmitidos.get();
+    }
+
+    /**
+     * Obtiene los segundos transcurridos desde el inicio
+     * @return Segundos transcurridos
+     */
+    public double getSegundosTranscurridos() {
+        long fin = finNanos != 0 ? finNanos : System.nanoTime();
+        return (fin - inicioNanos) / 1_000_000_000.0;
+    }
+
+    /**
+     * Páginas procesadas por segundo
+     * @return Tasa de páginas por segundo
+     */
+    public double getPaginasPorSegundo() {
+        double segundos = getSegundosTranscurridos();
+        return segundos > 0 ? paginas.get() / segundos : 0.0;
+    }
+
+    /**
+     * Libros recibidos por segundo
+     * @return Tasa de libros por segundo
+     */
+    public double getLibrosPorSegundo() {
+        double segundos = getSegundosTranscurridos();
+        return segundos > 0 ? librosRecibidos.get() / segundos : 0.0;
+    }
+
+    /**
+     * Información resumida para mostrar en consola
+     * @return String con contadores y tasas
+     */
+    public String getResumen() {
+        return String.format("Ingesta: %d páginas, %d libros (%d nuevos, %d omitidos) en %.1f s - %.2f páginas/s, %.1f libros/s",
+                getPaginas(), getLibrosRecibidos(), getLibrosGuardados(), getLibrosOmitidos(),
+                getSegundosTranscurridos(), getPaginasPorSegundo(), getLibrosPorSegundo());
+    }
+
+    @Override
+    public String toString() {
+        return getResumen();
+    }
+}
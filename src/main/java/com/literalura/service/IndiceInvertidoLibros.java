@@ -0,0 +1,440 @@
+package com.literalura.service;
+
+import com.literalura.model.entity.Libro;
+import com.literalura.repository.LibroRepository;
+import com.literalura.repository.LibroUpsertRepository.ResultadoUpsert;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria sobre títulos, autores y materias de los libros
+ *
+ * Cada libro recibe un número interno consecutivo y las listas de
+ * apariciones de cada término se guardan como arreglos de int ordenados,
+ * sin colecciones de objetos. Las búsquedas intersecan esas listas y
+ * devuelven los k libros más descargados, sin tocar la base de datos.
+ *
+ * Es opcional (literalura.indice.habilitado) y se construye al arrancar
+ * desde el repositorio; después se actualiza al guardar libros. Las
+ * materias no se guardan en la base de datos: solo se indexan los libros
+ * recibidos de la API mientras la aplicación sigue en marcha, y al
+ * reiniciar se pierden, porque el índice reconstruido desde la base de
+ * datos solo tiene título y autor.
+ */
+@Component
+public class IndiceInvertidoLibros {
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final int LOTE_CONSTRUCCION = 5_000;
+
+    /**
+     * Datos de un libro necesarios para indexarlo
+     */
+    public record Documento(long libroId, String titulo, String autor, List<String> materias, long descargas) {
+
+        /**
+         * Crea el documento de un libro ya persistido
+         * @param libro Libro con id asignado
+         * @param materias Materias del libro (pueden ser null)
+         * @return Documento a indexar
+         */
+        public static Documento de(Libro libro, List<String> materias) {
+            return new Documento(libro.getId(), libro.getTitulo(),
+                    libro.getAutor() != null ? libro.getAutor().getNombre() : null,
+                    materias != null ? materias : List.of(),
+                    libro.getNumeroDescargas() != null ? libro.getNumeroDescargas() : 0L);
+        }
+    }
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    private final boolean habilitado;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Diccionario ordenado para poder resolver prefijos con subMap
+    private final NavigableMap<String, Postings> terminos = new TreeMap<>();
+    private final Map<Long, Integer> ordinalPorLibro = new HashMap<>();
+    private long[] libroPorOrdinal = new long[1024];
+    private long[] descargasPorOrdinal = new long[1024];
+    private int documentos;
+
+    public IndiceInvertidoLibros(@Value("${literalura.indice.habilitado:false}") boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * Construye el índice con todos los libros de la base de datos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void construir() {
+        if (!habilitado) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        int pagina = 0;
+        List<Object[]> filas;
+        do {
+            filas = libroRepository.findDatosIndice(PageRequest.of(pagina++, LOTE_CONSTRUCCION));
+            List<Documento> lote = new ArrayList<>(filas.size());
+            for (Object[] fila : filas) {
+                Long descargas = (Long) fila[3];
+                lote.add(new Documento((Long) fila[0], (String) fila[1], (String) fila[2], List.of(),
+                        descargas != null ? descargas : 0L));
+            }
+            indexar(lote);
+        } while (filas.size() == LOTE_CONSTRUCCION);
+
+        System.out.printf("Índice de libros construido: %d libros, %d términos en %.0f ms%n",
+                getDocumentos(), getTerminos(), (System.nanoTime() - inicio) / 1_000_000.0);
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Indexa los documentos cuando se confirme la transacción actual
+     * (o de inmediato si no hay transacción), para no indexar libros
+     * que un rollback descarta
+     * @param documentos Libros recién guardados
+     */
+    public void indexarAlConfirmar(Collection<Documento> documentos) {
+        if (!habilitado || documentos.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Documento> copia = List.copyOf(documentos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexar(copia);
+                }
+            });
+        } else {
+            indexar(documentos);
+        }
+    }
+
+    /**
+     * Agrega documentos al índice. Si un libro ya estaba indexado solo se
+     * actualiza su número de descargas.
+     * @param nuevos Documentos a indexar
+     */
+    public void indexar(Collection<Documento> nuevos) {
+        if (!habilitado) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Documento documento : nuevos) {
+                Integer existente = ordinalPorLibro.get(documento.libroId());
+                if (existente != null) {
+                    descargasPorOrdinal[existente] = documento.descargas();
+                    continue;
+                }
+
+                int ordinal = documentos++;
+                asegurarCapacidad(documentos);
+                libroPorOrdinal[ordinal] = documento.libroId();
+                descargasPorOrdinal[ordinal] = documento.descargas();
+                ordinalPorLibro.put(documento.libroId(), ordinal);
+
+                Set<String> tokens = new LinkedHashSet<>();
+                tokenizar(documento.titulo(), tokens);
+                tokenizar(documento.autor(), tokens);
+                if (documento.materias() != null) {
+                    for (String materia : documento.materias()) {
+                        tokenizar(materia, tokens);
+                    }
+                }
+                // Los ordinales crecen, así que cada lista sigue ordenada al agregar al final
+                for (String token : tokens) {
+                    terminos.computeIfAbsent(token, t -> new Postings()).agregar(ordinal);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Actualiza el número de descargas de un libro ya indexado
+     * @param libroId Id del libro
+     * @param descargas Nuevo número de descargas
+     */
+    public void actualizarDescargas(long libroId, long descargas) {
+        if (!habilitado) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalPorLibro.get(libroId);
+            if (ordinal != null) {
+                descargasPorOrdinal[ordinal] = descargas;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Actualiza las descargas de los libros existentes que actualizó un upsert
+     * cuando se confirme la transacción actual (o de inmediato si no hay transacción)
+     * @param resultados Filas devueltas por upsertPorGutendxId
+     */
+    public void actualizarDescargasAlConfirmar(Collection<ResultadoUpsert> resultados) {
+        if (!habilitado) {
+            return;
+        }
+        Map<Long, Long> descargasPorLibro = new HashMap<>();
+        for (ResultadoUpsert resultado : resultados) {
+            if (!resultado.insertado() && resultado.descargas() != null) {
+                descargasPorLibro.put(resultado.id(), resultado.descargas());
+            }
+        }
+        if (descargasPorLibro.isEmpty()) {
+            return;
+        }
+        Runnable actualizar = () -> descargasPorLibro.forEach(this::actualizarDescargas);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    actualizar.run();
+                }
+            });
+        } else {
+            actualizar.run();
+        }
+    }
+
+    /**
+     * Busca libros que contengan todas las palabras de la consulta.
+     * La última palabra se trata como prefijo, de modo que sirve para
+     * autocompletar mientras se escribe.
+     * @param consulta Palabras a buscar
+     * @param k Cantidad máxima de resultados
+     * @return Ids de los libros, de más a menos descargados
+     */
+    public long[] buscar(String consulta, int k) {
+        List<String> tokens = new ArrayList<>(tokenizar(consulta, new LinkedHashSet<>()));
+        if (!habilitado || tokens.isEmpty() || k <= 0) {
+            return new long[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] resultado = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean ultimo = i == tokens.size() - 1;
+                int[] apariciones = ultimo ? aparicionesConPrefijo(tokens.get(i)) : aparicionesExactas(tokens.get(i));
+                resultado = resultado == null ? apariciones : intersecar(resultado, apariciones);
+                if (resultado.length == 0) {
+                    return new long[0];
+                }
+            }
+            return mejoresK(resultado, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDocumentos() {
+        lock.readLock().lock();
+        try {
+            return documentos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTerminos() {
+        lock.readLock().lock();
+        try {
+            return terminos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] aparicionesExactas(String termino) {
+        Postings postings = terminos.get(termino);
+        return postings != null ? postings.comoArreglo() : new int[0];
+    }
+
+    private int[] aparicionesConPrefijo(String prefijo) {
+        NavigableMap<String, Postings> rango = terminos.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false);
+        if (rango.size() == 1) {
+            return rango.firstEntry().getValue().comoArreglo();
+        }
+        // Unión de varias listas ordenadas: concatenar, ordenar y quitar duplicados
+        int total = 0;
+        for (Postings postings : rango.values()) {
+            total += postings.tamano;
+        }
+        int[] union = new int[total];
+        int posicion = 0;
+        for (Postings postings : rango.values()) {
+            System.arraycopy(postings.ordinales, 0, union, posicion, postings.tamano);
+            posicion += postings.tamano;
+        }
+        Arrays.sort(union);
+        int unicos = 0;
+        for (int i = 0; i < union.length; i++) {
+            if (i == 0 || union[i] != union[i - 1]) {
+                union[unicos++] = union[i];
+            }
+        }
+        return Arrays.copyOf(union, unicos);
+    }
+
+    private static int[] intersecar(int[] a, int[] b) {
+        int[] resultado = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                resultado[n++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(resultado, n);
+    }
+
+    /**
+     * Selecciona los k ordinales con más descargas usando un min-heap de int
+     */
+    private long[] mejoresK(int[] ordinales, int k) {
+        int tamano = Math.min(k, ordinales.length);
+        int[] heap = new int[tamano];
+        int enHeap = 0;
+        for (int ordinal : ordinales) {
+            if (enHeap < tamano) {
+                heap[enHeap] = ordinal;
+                subir(heap, enHeap++);
+            } else if (descargasPorOrdinal[ordinal] > descargasPorOrdinal[heap[0]]) {
+                heap[0] = ordinal;
+                bajar(heap, enHeap);
+            }
+        }
+
+        long[] resultado = new long[enHeap];
+        for (int i = enHeap - 1; i >= 0; i--) {
+            resultado[i] = libroPorOrdinal[heap[0]];
+            heap[0] = heap[i];
+            bajar(heap, i);
+        }
+        return resultado;
+    }
+
+    private void subir(int[] heap, int i) {
+        while (i > 0) {
+            int padre = (i - 1) / 2;
+            if (descargasPorOrdinal[heap[i]] >= descargasPorOrdinal[heap[padre]]) {
+                return;
+            }
+            intercambiar(heap, i, padre);
+            i = padre;
+        }
+    }
+
+    private void bajar(int[] heap, int tamano) {
+        int i = 0;
+        while (true) {
+            int menor = i;
+            int izquierdo = 2 * i + 1;
+            int derecho = izquierdo + 1;
+            if (izquierdo < tamano && descargasPorOrdinal[heap[izquierdo]] < descargasPorOrdinal[heap[menor]]) {
+                menor = izquierdo;
+            }
+            if (derecho < tamano && descargasPorOrdinal[heap[derecho]] < descargasPorOrdinal[heap[menor]]) {
+                menor = derecho;
+            }
+            if (menor == i) {
+                return;
+            }
+            intercambiar(heap, i, menor);
+            i = menor;
+        }
+    }
+
+    private static void intercambiar(int[] heap, int a, int b) {
+        int temporal = heap[a];
+        heap[a] = heap[b];
+        heap[b] = temporal;
+    }
+
+    private void asegurarCapacidad(int requerida) {
+        if (requerida > libroPorOrdinal.length) {
+            int nueva = Math.max(requerida, libroPorOrdinal.length * 2);
+            libroPorOrdinal = Arrays.copyOf(libroPorOrdinal, nueva);
+            descargasPorOrdinal = Arrays.copyOf(descargasPorOrdinal, nueva);
+        }
+    }
+
+    /**
+     * Divide un texto en términos en minúsculas y sin acentos
+     */
+    private static Set<String> tokenizar(String texto, Set<String> destino) {
+        if (texto == null || texto.isBlank()) {
+            return destino;
+        }
+        String normalizado = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String token : SEPARADORES.split(normalizado)) {
+            if (token.length() >= 2) {
+                destino.add(token);
+            }
+        }
+        return destino;
+    }
+
+    /**
+     * Lista de apariciones de un término: arreglo de int que crece al agregar
+     */
+    private static final class Postings {
+
+        private int[] ordinales = new int[4];
+        private int tamano;
+
+        void agregar(int ordinal) {
+            if (tamano == ordinales.length) {
+                ordinales = Arrays.copyOf(ordinales, tamano * 2);
+            }
+            ordinales[tamano++] = ordinal;
+        }
+
+        int[] comoArreglo() {
+            return tamano == ordinales.length ? ordinales : Arrays.copyOf(ordinales, tamano);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.literalura.service;
+
+import com.literalura.model.entity.Autor;
+import com.literalura.repository.AutorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice en memoria de los años de vida de los autores
+ *
+ * Responde "¿quién estaba vivo en el año X?" sin recorrer la tabla
+ * autores. Un autor está vivo en X si nació en X o antes y no ha fallecido
+ * o falleció en X o después (el año de fallecimiento cuenta como vivo,
+ * igual que Autor.estabaVivoEn). Los autores sin año de nacimiento no
+ * se indexan.
+ *
+ * Estructuras:
+ * - Árbol de segmentos sobre los años: cada intervalo de vida se guarda
+ *   en O(log Y) nodos, y consultar un año recorre una rama y devuelve los
+ *   k autores en O(log Y + k)
+ * - Árboles de Fenwick de nacimientos y fallecimientos para contar en O(log Y)
+ * - Nacimientos por año para los rangos: vivo en algún momento de [A, B]
+ *   equivale a vivo en A o nacido en (A, B]
+ */
+@Component
+public class IndiceVidaAutores {
+
+    // Rango de años cubierto; los valores fuera se ajustan a los extremos
+    private static final int ANO_MINIMO = -4000;
+    private static final int ANO_MAXIMO = 2200;
+    private static final int ANOS = ANO_MAXIMO - ANO_MINIMO + 1;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    private final boolean habilitado;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final int hojas;
+    private final int[][] nodos;
+    private final int[] tamanoNodos;
+    private final long[] fenwickNacimientos = new long[ANOS + 1];
+    private final long[] fenwickFallecimientos = new long[ANOS + 1];
+    private final NavigableMap<Integer, int[]> nacimientosPorAno = new TreeMap<>();
+    private final Set<Long> indexados = new HashSet<>();
+    private long[] autorPorOrdinal = new long[1024];
+    private int autores;
+
+    public IndiceVidaAutores(@Value("${literalura.autores.indice-vida.habilitado:true}") boolean habilitado) {
+        this.habilitado = habilitado;
+        int h = 1;
+        while (h < ANOS) {
+            h <<= 1;
+        }
+        this.hojas = h;
+        this.nodos = new int[2 * h][];
+        this.tamanoNodos = new int[2 * h];
+    }
+
+    /**
+     * Construye el índice con los autores de la base de datos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void construir() {
+        if (!habilitado) {
+            return;
+        }
+        List<Object[]> filas = autorRepository.findAnosDeVida();
+        lock.writeLock().lock();
+        try {
+            for (Object[] fila : filas) {
+                agregarSinBloqueo((Long) fila[0], (Integer) fila[1], (Integer) fila[2]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Índice de años de vida construido con " + getAutores() + " autores");
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Agrega autores recién guardados cuando se confirme la transacción actual
+     * @param nuevos Autores con id asignado
+     */
+    public void agregarAlConfirmar(Collection<Autor> nuevos) {
+        if (!habilitado || nuevos.isEmpty()) {
+            return;
+        }
+        long[] ids = new long[nuevos.size()];
+        Integer[] nacimientos = new Integer[nuevos.size()];
+        Integer[] fallecimientos = new Integer[nuevos.size()];
+        int i = 0;
+        for (Autor autor : nuevos) {
+            ids[i] = autor.getId();
+            nacimientos[i] = autor.getAnoNacimiento();
+            fallecimientos[i++] = autor.getAnoFallecimiento();
+        }
+
+        Runnable agregar = () -> {
+            lock.writeLock().lock();
+            try {
+                for (int j = 0; j < ids.length; j++) {
+                    agregarSinBloqueo(ids[j], nacimientos[j], fallecimientos[j]);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    agregar.run();
+                }
+            });
+        } else {
+            agregar.run();
+        }
+    }
+
+    /**
+     * Autores vivos en un año
+     * @param ano Año a consultar
+     * @return Ids de los autores vivos
+     */
+    public long[] vivosEn(int ano) {
+        lock.readLock().lock();
+        try {
+            int[] ordinales = new int[64];
+            int n = 0;
+            int nodo = hojas + posicion(ano);
+            while (nodo >= 1) {
+                int tamano = tamanoNodos[nodo];
+                if (tamano > 0) {
+                    if (n + tamano > ordinales.length) {
+                        ordinales = Arrays.copyOf(ordinales, Math.max(ordinales.length * 2, n + tamano));
+                    }
+                    System.arraycopy(nodos[nodo], 0, ordinales, n, tamano);
+                    n += tamano;
+                }
+                nodo >>= 1;
+            }
+            return aIds(ordinales, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cantidad de autores vivos en un año
+     * @param ano Año a consultar
+     * @return Cantidad de autores vivos
+     */
+    public long contarVivosEn(int ano) {
+        lock.readLock().lock();
+        try {
+            int p = posicion(ano);
+            // Nacidos hasta el año inclusive menos fallecidos antes del año
+            return sumar(fenwickNacimientos, p) - (p > 0 ? sumar(fenwickFallecimientos, p - 1) : 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Autores vivos en algún momento del rango [anoInicio, anoFin]
+     * @param anoInicio Primer año del rango
+     * @param anoFin Último año del rango
+     * @return Ids de los autores
+     */
+    public long[] vivosEntre(int anoInicio, int anoFin) {
+        if (anoInicio > anoFin) {
+            throw new IllegalArgumentException("El año de inicio debe ser menor o igual al año de fin");
+        }
+        lock.readLock().lock();
+        try {
+            long[] vivosAlInicio = vivosEn(anoInicio);
+            NavigableMap<Integer, int[]> nacidos = nacimientosPorAno.subMap(
+                    posicion(anoInicio), false, posicion(anoFin), true);
+
+            int total = vivosAlInicio.length;
+            for (int[] lista : nacidos.values()) {
+                total += lista[0];
+            }
+            long[] resultado = Arrays.copyOf(vivosAlInicio, total);
+            int n = vivosAlInicio.length;
+            for (int[] lista : nacidos.values()) {
+                for (int i = 1; i <= lista[0]; i++) {
+                    resultado[n++] = autorPorOrdinal[lista[i]];
+                }
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cantidad de autores vivos en algún momento del rango [anoInicio, anoFin]
+     * @param anoInicio Primer año del rango
+     * @param anoFin Último año del rango
+     * @return Cantidad de autores
+     */
+    public long contarVivosEntre(int anoInicio, int anoFin) {
+        if (anoInicio > anoFin) {
+            throw new IllegalArgumentException("El año de inicio debe ser menor o igual al año de fin");
+        }
+        lock.readLock().lock();
+        try {
+            return contarVivosEn(anoInicio)
+                    + sumar(fenwickNacimientos, posicion(anoFin))
+                    - sumar(fenwickNacimientos, posicion(anoInicio));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getAutores() {
+        lock.readLock().lock();
+        try {
+            return autores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void agregarSinBloqueo(Long id, Integer anoNacimiento, Integer anoFallecimiento) {
+        if (!habilitado || id == null || anoNacimiento == null || !indexados.add(id)) {
+            return;
+        }
+        int inicio = posicion(anoNacimiento);
+        int fin = anoFallecimiento != null ? posicion(anoFallecimiento) : ANOS - 1;
+        if (fin < inicio) {
+            // Datos inconsistentes: se considera vivo solo el año de nacimiento
+            fin = inicio;
+        }
+
+        int ordinal = autores++;
+        if (autores > autorPorOrdinal.length) {
+            autorPorOrdinal = Arrays.copyOf(autorPorOrdinal, autorPorOrdinal.length * 2);
+        }
+        autorPorOrdinal[ordinal] = id;
+
+        // Nodos canónicos del árbol de segmentos que cubren [inicio, fin]
+        int izquierda = inicio + hojas;
+        int derecha = fin + hojas + 1;
+        while (izquierda < derecha) {
+            if ((izquierda & 1) == 1) {
+                agregarANodo(izquierda++, ordinal);
+            }
+            if ((derecha & 1) == 1) {
+                agregarANodo(--derecha, ordinal);
+            }
+            izquierda >>= 1;
+            derecha >>= 1;
+        }
+
+        incrementar(fenwickNacimientos, inicio);
+        if (anoFallecimiento != null) {
+            incrementar(fenwickFallecimientos, fin);
+        }
+
+        // Lista de nacimientos del año: la posición 0 guarda el tamaño
+        int[] lista = nacimientosPorAno.computeIfAbsent(inicio, p -> new int[5]);
+        if (lista[0] + 1 == lista.length) {
+            lista = Arrays.copyOf(lista, lista.length * 2);
+            nacimientosPorAno.put(inicio, lista);
+        }
+        lista[++lista[0]] = ordinal;
+    }
+
+    private void agregarANodo(int nodo, int ordinal) {
+        int[] lista = nodos[nodo];
+        if (lista == null) {
+            lista = new int[4];
+            nodos[nodo] = lista;
+        } else if (tamanoNodos[nodo] == lista.length) {
+            lista = Arrays.copyOf(lista, lista.length * 2);
+            nodos[nodo] = lista;
+        }
+        lista[tamanoNodos[nodo]++] = ordinal;
+    }
+
+    private long[] aIds(int[] ordinales, int n) {
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = autorPorOrdinal[ordinales[i]];
+        }
+        return ids;
+    }
+
+    private static int posicion(int ano) {
+        return Math.max(ANO_MINIMO, Math.min(ANO_MAXIMO, ano)) - ANO_MINIMO;
+    }
+
+    private static void incrementar(long[] fenwick, int posicion) {
+        for (int i = posicion + 1; i < fenwick.length; i += i & -i) {
+            fenwick[i]++;
+        }
+    }
+
+    /**
+     * Suma de las posiciones 0..posicion inclusive
+     */
+    private static long sumar(long[] fenwick, int posicion) {
+        long suma = 0;
+        for (int i = posicion + 1; i > 0; i -= i & -i) {
+            suma += fenwick[i];
+        }
+        return suma;
+    }
+}
@@ -0,0 +1,422 @@
+package com.literalura.service;
+
+import com.literalura.model.Idioma;
+import com.literalura.model.dto.LibroDTO;
+import com.literalura.model.dto.RespuestaAPI;
+import com.literalura.model.entity.Autor;
+import com.literalura.model.entity.EstadoIngesta;
+import com.literalura.model.entity.Libro;
+import com.literalura.repository.EstadoIngestaRepository;
+import com.literalura.repository.LibroRepository;
+import com.literalura.repository.LibroUpsertRepository.ResultadoUpsert;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Servicio de ingesta masiva del catálogo completo de Gutendx
+ *
+ * Recorre la paginación de la API siguiendo RespuestaAPI.siguientePagina
+ * desde la primera página hasta la última. Cada página se lee en streaming
+ * y sus libros se guardan en lotes mientras la página aún se descarga; el
+ * progreso se registra al terminar la página, por lo que una ingesta
+ * interrumpida se reanuda desde la primera página no confirmada (los
+ * lotes ya guardados de esa página se omiten por gutendxId).
+ *
+ * El modo en paralelo reparte descarga, conversión y persistencia en
+ * etapas con colas acotadas (ver PipelineIngesta).
+ */
+@Service
+public class IngestaCatalogoService {
+
+    public static final String INGESTA_CATALOGO = "catalogo";
+
+    @Autowired
+    private ConsumoApi consumoApi;
+
+    @Autowired
+    private ConvierteDatos conversor;
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    @Autowired
+    private ResolutorAutores resolutorAutores;
+
+    @Autowired
+    private IndiceInvertidoLibros indiceLibros;
+
+    @Autowired
+    private EstadisticasCatalogo estadisticasCatalogo;
+
+    @Autowired
+    private EstadoIngestaRepository estadoIngestaRepository;
+
+    @Autowired
+    @Qualifier("gutendxBaseUrl")
+    private String urlBase;
+
+    @Value("${literalura.ingesta.max-paginas:0}")
+    private int maxPaginas;
+
+    @Value("${literalura.ingesta.tamano-lote:16}")
+    private int tamanoLote;
+
+    @Value("${literalura.ingesta.intervalo-reporte:10}")
+    private int intervaloReporte;
+
+    @Value("${literalura.ingesta.pipeline.hilos-descarga:4}")
+    private int hilosDescarga;
+
+    @Value("${literalura.ingesta.pipeline.hilos-conversion:2}")
+    private int hilosConversion;
+
+    @Value("${literalura.ingesta.pipeline.hilos-persistencia:1}")
+    private int hilosPersistencia;
+
+    @Value("${literalura.ingesta.pipeline.capacidad-cola:16}")
+    private int capacidadCola;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public IngestaCatalogoService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Ingiere el catálogo completo, reanudando desde la última página confirmada
+     * @return Estadísticas de la ejecución
+     */
+    public EstadisticasIngesta ingerirCatalogo() {
+        return ingerirCatalogo(false);
+    }
+
+    /**
+     * Ingiere el catálogo completo
+     * @param reiniciar true para empezar desde la primera página ignorando el progreso guardado
+     * @return Estadísticas de la ejecución
+     */
+    public EstadisticasIngesta ingerirCatalogo(boolean reiniciar) {
+        EstadisticasIngesta estadisticas = new EstadisticasIngesta();
+        EstadoIngesta estado = prepararEstado(reiniciar);
+
+        if (estado.isCompletada()) {
+            System.out.println("La ingesta del catálogo ya está completa: " + estado);
+            estadisticas.finalizar();
+            return estadisticas;
+        }
+
+        if (estado.getPaginasProcesadas() > 0) {
+            System.out.println("Reanudando ingesta desde la página " + (estado.getPaginasProcesadas() + 1));
+        }
+
+        String url = estado.getSiguientePagina();
+        while (url != null && (maxPaginas <= 0 || estadisticas.getPaginas() < maxPaginas)) {
+            RespuestaAPI cabecera = ingerirPaginaEnStreaming(url, estadisticas);
+
+            url = cabecera.tieneOtrasPaginas() ? cabecera.getSiguientePagina() : null;
+
+            if (intervaloReporte > 0 && estadisticas.getPaginas() % intervaloReporte == 0) {
+                System.out.println(estadisticas.getResumen());
+            }
+        }
+
+        estadisticas.finalizar();
+        System.out.println(estadisticas.getResumen());
+        return estadisticas;
+    }
+
+    /**
+     * Ingiere el catálogo con descarga, conversión y persistencia en paralelo,
+     * reanudando desde la última página contigua confirmada.
+     *
+     * Las páginas se piden por número (?page=N) en lugar de seguir el enlace
+     * "next", para que varios hilos puedan descargar a la vez.
+     * @param reiniciar true para empezar desde la primera página ignorando el progreso guardado
+     * @return Estadísticas de la ejecución
+     */
+    public EstadisticasIngesta ingerirCatalogoEnParalelo(boolean reiniciar) {
+        EstadisticasIngesta estadisticas = new EstadisticasIngesta();
+        EstadoIngesta estado = prepararEstado(reiniciar);
+
+        if (estado.isCompletada()) {
+            System.out.println("La ingesta del catálogo ya está completa: " + estado);
+            estadisticas.finalizar();
+            return estadisticas;
+        }
+
+        // La primera página pendiente se pide de forma síncrona para conocer el total
+        int numeroInicial = estado.getUltimaPagina() + 1;
+        RespuestaAPI inicial = conversor.obtenerDatos(
+                consumoApi.obtenerDatosSinCache(urlPagina(numeroInicial)), RespuestaAPI.class);
+        int ultimaDelCatalogo = calcularUltimaPagina(numeroInicial, inicial);
+        int ultimaPagina = maxPaginas > 0
+                ? Math.min(ultimaDelCatalogo, numeroInicial + maxPaginas - 1)
+                : ultimaDelCatalogo;
+
+        System.out.printf("Ingesta en paralelo de las páginas %d a %d (%d/%d/%d hilos, colas de %d)%n",
+                numeroInicial, ultimaPagina, hilosDescarga, hilosConversion, hilosPersistencia, capacidadCola);
+
+        ProgresoContiguo progreso = new ProgresoContiguo(estado.getUltimaPagina(), ultimaPagina,
+                ultimaPagina == ultimaDelCatalogo);
+        PipelineIngesta pipeline = new PipelineIngesta(
+                // Sin caché de respuestas: cada página se pide una vez y no debe quedarse en memoria ni en disco
+                numero -> consumoApi.obtenerDatosSinCache(urlPagina(numero)),
+                conversor::obtenerPaginaSinFormatos,
+                pagina -> persistirPagina(pagina, progreso, estadisticas),
+                hilosDescarga, hilosConversion, hilosPersistencia, capacidadCola);
+
+        pipeline.ejecutar(new PipelineIngesta.Pagina(numeroInicial, null, inicial), ultimaPagina, estadisticas);
+
+        estadisticas.finalizar();
+        System.out.println(estadisticas.getResumen());
+        return estadisticas;
+    }
+
+    /**
+     * Obtiene el progreso guardado de la ingesta del catálogo
+     * @return Estado de la ingesta o null si nunca se ejecutó
+     */
+    public EstadoIngesta obtenerEstado() {
+        return estadoIngestaRepository.findById(INGESTA_CATALOGO).orElse(null);
+    }
+
+    /**
+     * Carga el estado guardado o crea uno nuevo apuntando a la primera página
+     * @param reiniciar true para descartar el progreso existente
+     * @return Estado de la ingesta
+     */
+    private EstadoIngesta prepararEstado(boolean reiniciar) {
+        return transactionTemplate.execute(status -> {
+            EstadoIngesta estado = estadoIngestaRepository.findById(INGESTA_CATALOGO).orElse(null);
+            if (estado == null || reiniciar) {
+                estado = new EstadoIngesta(INGESTA_CATALOGO, urlBase);
+            }
+            return estadoIngestaRepository.save(estado);
+        });
+    }
+
+    /**
+     * Descarga una página en streaming y guarda sus libros en lotes a medida
+     * que se leen del cuerpo HTTP; al final registra la página en el progreso.
+     * @param url URL de la página
+     * @param estadisticas Métricas a actualizar
+     * @return Cabecera de la página (count, next, previous)
+     */
+    private RespuestaAPI ingerirPaginaEnStreaming(String url, EstadisticasIngesta estadisticas) {
+        List<LibroDTO> lote = new ArrayList<>(tamanoLote);
+        int[] recibidos = {0};
+        int[] guardados = {0};
+
+        RespuestaAPI cabecera;
+        try (InputStream cuerpo = consumoApi.obtenerFlujo(url)) {
+            cabecera = conversor.leerPaginaEnStreaming(cuerpo, libro -> {
+                recibidos[0]++;
+                lote.add(libro);
+                if (lote.size() >= tamanoLote) {
+                    guardados[0] += persistirLote(lote);
+                    lote.clear();
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Error de conexión: " + e.getMessage(), e);
+        }
+        guardados[0] += persistirLote(lote);
+
+        String siguiente = cabecera.tieneOtrasPaginas() ? cabecera.getSiguientePagina() : null;
+        transactionTemplate.executeWithoutResult(status -> {
+            EstadoIngesta estado = estadoIngestaRepository.findById(INGESTA_CATALOGO)
+                    .orElseGet(() -> new EstadoIngesta(INGESTA_CATALOGO, urlBase));
+            estado.registrarPagina(guardados[0], siguiente);
+            estadoIngestaRepository.save(estado);
+        });
+
+        estadisticas.registrarPagina(recibidos[0], guardados[0]);
+        return cabecera;
+    }
+
+    /**
+     * Guarda un lote de libros en su propia transacción
+     * @param lote Libros leídos de la API
+     * @return Cantidad de libros nuevos guardados
+     */
+    private int persistirLote(List<LibroDTO> lote) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        Integer guardados = transactionTemplate.execute(status -> guardarLibros(lote));
+        return guardados != null ? guardados : 0;
+    }
+
+    /**
+     * Etapa de persistencia del pipeline: guarda la página en su propia
+     * transacción y después registra el progreso. Si el proceso cae entre
+     * ambos pasos la página se vuelve a procesar al reanudar, sin duplicar
+     * libros porque se filtran por gutendxId.
+     */
+    private int persistirPagina(PipelineIngesta.Pagina pagina, ProgresoContiguo progreso,
+                                EstadisticasIngesta estadisticas) {
+        List<LibroDTO> libros = pagina.respuesta().tieneResultados()
+                ? pagina.respuesta().getResultados() : List.of();
+        int nuevos = persistirLote(libros);
+
+        int contigua = progreso.confirmar(pagina.numero());
+        transactionTemplate.executeWithoutResult(status -> {
+            estadoIngestaRepository.sumarPagina(INGESTA_CATALOGO, nuevos, LocalDateTime.now());
+            if (contigua > 0) {
+                boolean completada = contigua >= progreso.getPaginaFinal() && progreso.esFinalDelCatalogo();
+                estadoIngestaRepository.avanzarUltimaPagina(INGESTA_CATALOGO, contigua,
+                        completada ? null : urlPagina(contigua + 1), completada);
+            }
+        });
+
+        if (intervaloReporte > 0 && (estadisticas.getPaginas() + 1) % intervaloReporte == 0) {
+            System.out.println(estadisticas.getResumen());
+        }
+        return nuevos;
+    }
+
+    /**
+     * Guarda los libros de una lista con un upsert por gutendx_id: los nuevos se
+     * insertan y los existentes actualizan sus descargas, así que repetir una
+     * página o procesarla desde varios hilos es idempotente.
+     * Debe ejecutarse dentro de una transacción.
+     * @param libros Libros leídos de la API
+     * @return Cantidad de libros nuevos guardados
+     */
+    private int guardarLibros(List<LibroDTO> libros) {
+        List<LibroDTO> validos = libros.stream()
+                .filter(Objects::nonNull)
+                .filter(LibroDTO::esValido)
+                .filter(dto -> dto.getId() != null)
+                .filter(dto -> dto.getPrimerAutor().esValido())
+                .toList();
+        if (validos.isEmpty()) {
+            return 0;
+        }
+
+        // Todos los autores del lote se resuelven con una consulta y un lote de INSERT
+        Map<String, Autor> autores = resolutorAutores.resolverAutores(
+                validos.stream().map(LibroDTO::getPrimerAutor).toList());
+
+        Map<Long, LibroDTO> dtoPorGutendxId = new HashMap<>();
+        List<Libro> candidatos = new ArrayList<>(validos.size());
+        for (LibroDTO dto : validos) {
+            Autor autor = autores.get(ResolutorAutores.normalizar(dto.getPrimerAutor().getNombreLimpio()));
+            candidatos.add(crearLibroDesdeDto(dto, autor));
+            dtoPorGutendxId.put(dto.getId(), dto);
+        }
+
+        // Solo los libros insertados reciben id; los existentes solo actualizan sus descargas
+        List<ResultadoUpsert> resultados = libroRepository.upsertPorGutendxId(candidatos);
+        List<Libro> nuevos = candidatos.stream()
+                .filter(libro -> libro.getId() != null)
+                .toList();
+        estadisticasCatalogo.registrarLibros(nuevos);
+        estadisticasCatalogo.registrarDescargasActualizadas(resultados);
+        indiceLibros.actualizarDescargasAlConfirmar(resultados);
+
+        List<IndiceInvertidoLibros.Documento> documentos = new ArrayList<>(nuevos.size());
+        for (Libro libro : nuevos) {
+            // El nombre se toma del DTO: el autor puede ser una referencia sin inicializar
+            LibroDTO dto = dtoPorGutendxId.get(libro.getGutendxId());
+            documentos.add(new IndiceInvertidoLibros.Documento(libro.getId(), libro.getTitulo(),
+                    dto.getPrimerAutor().getNombreLimpio(), dto.getMaterias(), dto.getDescargasSeguro()));
+        }
+        indiceLibros.indexarAlConfirmar(documentos);
+
+        return nuevos.size();
+    }
+
+    /**
+     * Crea un objeto Libro a partir del DTO de la API
+     * (también lo usan LibroService y los benchmarks)
+     * @param dto Datos del libro desde la API
+     * @param autor Autor ya persistido
+     * @return Libro sin persistir
+     */
+    public static Libro crearLibroDesdeDto(LibroDTO dto, Autor autor) {
+        return new Libro(recortar(dto.getTituloLimpio(), 500), Idioma.desdeCodigoOOtros(dto.getPrimerIdioma()),
+                dto.getDescargasSeguro(), autor, dto.getId());
+    }
+
+    /**
+     * Construye la URL de una página concreta del catálogo
+     * @param numero Número de página (empezando en 1)
+     * @return URL de la página
+     */
+    private String urlPagina(int numero) {
+        return urlBase + (urlBase.contains("?") ? "&" : "?") + "page=" + numero;
+    }
+
+    /**
+     * Calcula la última página del catálogo a partir de una página ya descargada
+     * @param numero Número de la página descargada
+     * @param respuesta Contenido de esa página
+     * @return Número de la última página
+     */
+    private static int calcularUltimaPagina(int numero, RespuestaAPI respuesta) {
+        if (!respuesta.tieneOtrasPaginas() || respuesta.getTotalResultados() == null
+                || respuesta.getCantidadResultados() == 0) {
+            return numero;
+        }
+        int porPagina = respuesta.getCantidadResultados();
+        return Math.max(numero, (respuesta.getTotalResultados() + porPagina - 1) / porPagina);
+    }
+
+    /**
+     * Lleva la cuenta de la última página confirmada sin huecos cuando
+     * las páginas se confirman fuera de orden
+     */
+    private static final class ProgresoContiguo {
+
+        private final Set<Integer> confirmadas = new HashSet<>();
+        private final int paginaFinal;
+        private final boolean finalDelCatalogo;
+        private int contigua;
+
+        ProgresoContiguo(int contigua, int paginaFinal, boolean finalDelCatalogo) {
+            this.contigua = contigua;
+            this.paginaFinal = paginaFinal;
+            this.finalDelCatalogo = finalDelCatalogo;
+        }
+
+        /**
+         * @return Nueva página contigua si avanzó, 0 si no cambió
+         */
+        synchronized int confirmar(int numero) {
+            confirmadas.add(numero);
+            int anterior = contigua;
+            while (confirmadas.remove(contigua + 1)) {
+                contigua++;
+            }
+            return contigua > anterior ? contigua : 0;
+        }
+
+        int getPaginaFinal() {
+            return paginaFinal;
+        }
+
+        boolean esFinalDelCatalogo() {
+            return finalDelCatalogo;
+        }
+    }
+
+    private static String recortar(String texto, int maximo) {
+        return texto.length() > maximo ? texto.substring(0, maximo) : texto;
+    }
+}
@@ -0,0 +1,119 @@
+package com.literalura.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Interruptor de circuito para las peticiones a un servicio externo
+ *
+ * Cerrado deja pasar todas las peticiones. Tras umbralFallos fallos
+ * seguidos se abre y rechaza las peticiones sin enviarlas durante el
+ * tiempo de apertura. Después pasa a semiabierto y deja pasar una sola
+ * petición de prueba: si tiene éxito el circuito se cierra y, si falla,
+ * vuelve a abrirse.
+ */
+public class InterruptorCircuito {
+
+    public enum Estado { CERRADO, ABIERTO, SEMIABIERTO }
+
+    /**
+     * Petición rechazada porque el circuito está abierto
+     */
+    public static class CircuitoAbiertoException extends RuntimeException {
+        public CircuitoAbiertoException(String mensaje) {
+            super(mensaje);
+        }
+    }
+
+    private final int umbralFallos;
+    private final long aperturaNanos;
+
+    private Estado estado = Estado.CERRADO;
+    private int fallosSeguidos;
+    private long abiertoDesdeNanos;
+    private boolean pruebaEnCurso;
+
+    private final LongAdder aperturas = new LongAdder();
+    private final LongAdder rechazadas = new LongAdder();
+
+    public InterruptorCircuito(int umbralFallos, long aperturaMillis) {
+        if (umbralFallos < 1) {
+            throw new IllegalArgumentException("El umbral de fallos debe ser positivo");
+        }
+        this.umbralFallos = umbralFallos;
+        this.aperturaNanos = TimeUnit.MILLISECONDS.toNanos(aperturaMillis);
+    }
+
+    /**
+     * Reserva permiso para enviar una petición
+     * @return true si la petición puede enviarse
+     */
+    public synchronized boolean permitir() {
+        switch (estado) {
+            case CERRADO:
+                return true;
+            case ABIERTO:
+                if (System.nanoTime() - abiertoDesdeNanos < aperturaNanos) {
+                    rechazadas.increment();
+                    return false;
+                }
+                estado = Estado.SEMIABIERTO;
+                pruebaEnCurso = true;
+                return true;
+            default:
+                if (pruebaEnCurso) {
+                    rechazadas.increment();
+                    return false;
+                }
+                pruebaEnCurso = true;
+                return true;
+        }
+    }
+
+    /**
+     * Igual que permitir() pero lanza una excepción si el circuito está abierto
+     * @param servicio Nombre del servicio para el mensaje de error
+     */
+    public void verificar(String servicio) {
+        if (!permitir()) {
+            throw new CircuitoAbiertoException("Circuito abierto: " + servicio + " no está disponible");
+        }
+    }
+
+    public synchronized void registrarExito() {
+        estado = Estado.CERRADO;
+        fallosSeguidos = 0;
+        pruebaEnCurso = false;
+    }
+
+    public synchronized void registrarFallo() {
+        pruebaEnCurso = false;
+        if (estado == Estado.SEMIABIERTO || ++fallosSeguidos >= umbralFallos) {
+            if (estado != Estado.ABIERTO) {
+                aperturas.increment();
+            }
+            estado = Estado.ABIERTO;
+            abiertoDesdeNanos = System.nanoTime();
+            fallosSeguidos = 0;
+        }
+    }
+
+    /**
+     * La petición permitida no llegó a terminar (por ejemplo, se canceló)
+     */
+    public synchronized void registrarCancelada() {
+        pruebaEnCurso = false;
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+
+    public long getAperturas() {
+        return aperturas.sum();
+    }
+
+    public long getRechazadas() {
+        return rechazadas.sum();
+    }
+}
@@ -1,20 +1,39 @@
 package com.literalura.service;
 
-import com.literalura.dto.DatosLibros;
-import com.literalura.dto.DatosLibro;
-import com.literalura.dto.DatosAutor;
+import com.literalura.model.dto.AutorDTO;
+import com.literalura.model.dto.LibroDTO;
+import com.literalura.model.dto.LibroResumen;
+import com.literalura.model.dto.RespuestaAPI;
 import com.literalura.model.entity.Libro;
 import com.literalura.model.entity.Autor;
 import com.literalura.model.Idioma;
 import com.literalura.repository.LibroRepository;
+import com.literalura.repository.LibroUpsertRepository.ResultadoUpsert;
 import com.literalura.repository.AutorRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -22,6 +41,8 @@ public class LibroService {
 
     private static final String URL_BASE = "https://gutendx.com/books/";
 
+    private static final int TAMANO_PAGINA_BUSQUEDA = 20;
+
     @Autowired
     private ConsumoApi consumoApi;
 
@@ -34,39 +55,66 @@ public class LibroService {
     @Autowired
     private AutorRepository autorRepository;
 
+    @Autowired
+    private ResolutorAutores resolutorAutores;
+
+    @Autowired
+    private IndiceInvertidoLibros indiceLibros;
+
+    @Autowired
+    private EstadisticasCatalogo estadisticasCatalogo;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("jdbcBatchSize")
+    private Integer tamanoLote;
+
     /**
-     * Busca un libro por título en la API y lo guarda en la base de datos
+     * Busca un libro por título en la API y lo guarda en la base de datos.
+     * El libro se identifica por su ID de Gutendx: si ya estaba guardado solo
+     * se actualizan sus descargas.
      * @param titulo Título del libro a buscar
      * @return Libro encontrado y guardado
      */
     public Optional<Libro> buscarLibroPorTitulo(String titulo) {
         try {
-            // Verificar si ya existe en la base de datos
-            Optional<Libro> libroExistente = libroRepository
-                    .findByTituloContainsIgnoreCase(titulo);
-
-            if (libroExistente.isPresent()) {
-                System.out.println("El libro ya existe en la base de datos:");
-                return libroExistente;
-            }
-
-            // Buscar en la API
             String url = URL_BASE + "?search=" + titulo.replace(" ", "%20");
             String json = consumoApi.obtenerDatos(url);
-            DatosLibros datosLibros = conversor.obtenerDatos(json, DatosLibros.class);
+            RespuestaAPI respuesta = conversor.obtenerDatos(json, RespuestaAPI.class);
+
+            // Tomar el primer resultado completo
+            Optional<LibroDTO> datosLibro = respuesta.getResultados() == null ? Optional.empty()
+                    : respuesta.getResultados().stream()
+                    .filter(dto -> dto.esValido() && dto.getId() != null && dto.getPrimerAutor().esValido())
+                    .findFirst();
 
-            if (datosLibros.resultados().isEmpty()) {
+            if (datosLibro.isEmpty()) {
                 System.out.println("No se encontraron libros con ese título.");
                 return Optional.empty();
             }
 
-            // Tomar el primer resultado
-            DatosLibro datosLibro = datosLibros.resultados().get(0);
-            Libro libro = crearLibroDesdeApi(datosLibro);
+            Libro libro = crearLibroDesdeDto(datosLibro.get());
+            List<ResultadoUpsert> resultados = libroRepository.upsertPorGutendxId(List.of(libro));
+
+            if (libro.getId() == null) {
+                // Ya existía: puede haber cambiado su número de descargas
+                estadisticasCatalogo.registrarDescargasActualizadas(resultados);
+                indiceLibros.actualizarDescargasAlConfirmar(resultados);
+                System.out.println("El libro ya existe en la base de datos:");
+                return libroRepository.findByGutendxId(libro.getGutendxId());
+            }
 
-            Libro libroGuardado = libroRepository.save(libro);
+            estadisticasCatalogo.registrarLibros(List.of(libro));
+            indiceLibros.indexarAlConfirmar(List.of(new IndiceInvertidoLibros.Documento(libro.getId(),
+                    libro.getTitulo(), datosLibro.get().getPrimerAutor().getNombreLimpio(),
+                    datosLibro.get().getMaterias(), datosLibro.get().getDescargasSeguro())));
             System.out.println("Libro guardado exitosamente:");
-            return Optional.of(libroGuardado);
+            return Optional.of(libro);
 
         } catch (Exception e) {
             System.err.println("Error al buscar libro: " + e.getMessage());
@@ -75,20 +123,75 @@ public class LibroService {
     }
 
     /**
-     * Obtiene todos los libros guardados en la base de datos
+     * Obtiene todos los libros guardados en la base de datos, con su autor cargado en la misma consulta
      * @return Lista de todos los libros
      */
     public List<Libro> obtenerTodosLosLibros() {
-        return libroRepository.findAll();
+        return libroRepository.findAllConAutor();
+    }
+
+    /**
+     * Página de libros ordenados por descargas, paginando por clave (keyset).
+     * @param ultimo Último libro de la página anterior, o null para la primera página
+     * @param tamano Cantidad de libros por página
+     * @return Libros de la página, con su autor cargado
+     */
+    @Transactional(readOnly = true)
+    public List<Libro> obtenerLibrosPorDescargas(Libro ultimo, int tamano) {
+        PageRequest limite = PageRequest.ofSize(tamano);
+        if (ultimo == null) {
+            return libroRepository.findPrimerosPorDescargas(limite);
+        }
+        long descargas = ultimo.getNumeroDescargas() != null ? ultimo.getNumeroDescargas() : 0L;
+        return libroRepository.findSiguientesPorDescargas(descargas, ultimo.getId(), limite);
+    }
+
+    /**
+     * Recorre todos los libros sin cargarlos en memoria a la vez.
+     * Cada libro se desvincula del contexto de persistencia después de procesarlo.
+     * @param accion Acción a aplicar a cada libro
+     * @return Cantidad de libros recorridos
+     */
+    @Transactional(readOnly = true)
+    public long recorrerTodosLosLibros(Consumer<Libro> accion) {
+        try (Stream<Libro> libros = libroRepository.streamTodos()) {
+            return recorrer(libros, accion);
+        }
+    }
+
+    /**
+     * Recorre los libros ordenados por descargas sin cargarlos en memoria a la vez
+     * @param accion Acción a aplicar a cada libro
+     * @return Cantidad de libros recorridos
+     */
+    @Transactional(readOnly = true)
+    public long recorrerLibrosPorDescargas(Consumer<Libro> accion) {
+        try (Stream<Libro> libros = libroRepository.streamPorDescargas()) {
+            return recorrer(libros, accion);
+        }
+    }
+
+    /**
+     * Recorre los libros con más de X descargas sin cargarlos en memoria a la vez
+     * @param descargas Mínimo de descargas (exclusivo)
+     * @param accion Acción a aplicar a cada libro
+     * @return Cantidad de libros recorridos
+     */
+    @Transactional(readOnly = true)
+    public long recorrerLibrosConDescargasMayoresA(long descargas, Consumer<Libro> accion) {
+        try (Stream<Libro> libros = libroRepository.streamConDescargasMayoresA(descargas)) {
+            return recorrer(libros, accion);
+        }
     }
 
     /**
      * Obtiene libros por idioma
      * @param idioma Idioma a filtrar
-     * @return Lista de libros en el idioma especificado
+     * @return Resúmenes de los libros en el idioma especificado
      */
-    public List<Libro> obtenerLibrosPorIdioma(Idioma idioma) {
-        return libroRepository.findByIdioma(idioma);
+    @Transactional(readOnly = true)
+    public List<LibroResumen> obtenerLibrosPorIdioma(Idioma idioma) {
+        return libroRepository.findResumenesPorIdioma(idioma);
     }
 
     /**
@@ -97,75 +200,186 @@ public class LibroService {
      * @return Cantidad de libros en el idioma especificado
      */
     public long contarLibrosPorIdioma(Idioma idioma) {
-        return libroRepository.countByIdioma(idioma);
+        return estadisticasCatalogo.contarLibros(idioma);
+    }
+
+    /**
+     * Obtiene la cantidad de libros por idioma desde los contadores precalculados
+     * @return Mapa de idioma a cantidad, de más a menos libros
+     */
+    public Map<Idioma, Long> obtenerEstadisticasPorIdioma() {
+        return estadisticasCatalogo.getLibrosPorIdioma();
     }
 
     /**
      * Obtiene los top 10 libros más descargados
-     * @return Lista de los 10 libros más descargados
+     * @return Resúmenes de los 10 libros más descargados
      */
-    public List<Libro> obtenerTop10LibrosMasDescargados() {
-        return libroRepository.findTop10ByOrderByNumeroDescargasDesc();
+    @Transactional(readOnly = true)
+    public List<LibroResumen> obtenerTop10LibrosMasDescargados() {
+        return libroRepository.findResumenesMasDescargados(PageRequest.ofSize(10));
     }
 
     /**
-     * Busca libros por palabra clave en el título
+     * Busca libros por palabra clave (primera página de resultados)
      * @param palabraClave Palabra clave a buscar
-     * @return Lista de libros que contienen la palabra clave
+     * @return Primera página de libros que coinciden, por relevancia
      */
-    public List<Libro> buscarLibrosPorPalabraClave(String palabraClave) {
-        return libroRepository.findByTituloContainsIgnoreCase(palabraClave)
-                .map(List::of)
-                .orElse(List.of());
+    public Page<Libro> buscarLibrosPorPalabraClave(String palabraClave) {
+        return buscarLibrosPorPalabraClave(palabraClave, PageRequest.of(0, TAMANO_PAGINA_BUSQUEDA));
     }
 
     /**
-     * Crea un objeto Libro a partir de los datos de la API
-     * @param datosLibro Datos del libro desde la API
-     * @return Objeto Libro creado
+     * Busca libros por palabras clave en el título o el nombre del autor,
+     * ordenados por relevancia. Si la búsqueda por palabras no encuentra nada
+     * se intenta una búsqueda aproximada por título (errores de escritura,
+     * fragmentos de palabras).
+     * @param palabraClave Palabras a buscar
+     * @param pageable Página de resultados solicitada
+     * @return Página de libros encontrados
      */
-    private Libro crearLibroDesdeApi(DatosLibro datosLibro) {
-        // Crear o buscar autor
-        Autor autor = null;
-        if (!datosLibro.autores().isEmpty()) {
-            DatosAutor datosAutor = datosLibro.autores().get(0);
+    public Page<Libro> buscarLibrosPorPalabraClave(String palabraClave, Pageable pageable) {
+        if (palabraClave == null || palabraClave.trim().isEmpty()) {
+            return Page.empty(pageable);
+        }
 
-            // Buscar si el autor ya existe
-            Optional<Autor> autorExistente = autorRepository
-                    .findByNombreIgnoreCase(datosAutor.nombre());
+        String consulta = palabraClave.trim();
+        Page<Libro> resultados = libroRepository.buscarPorTextoCompleto(consulta, pageable);
+        if (resultados.isEmpty() && pageable.getPageNumber() == 0) {
+            resultados = libroRepository.buscarPorTituloSimilar(consulta, pageable);
+        }
+        return resultados;
+    }
 
-            if (autorExistente.isPresent()) {
-                autor = autorExistente.get();
-            } else {
-                // Crear nuevo autor
-                autor = new Autor();
-                autor.setNombre(datosAutor.nombre());
-                autor.setAnioNacimiento(datosAutor.anioNacimiento());
-                autor.setAnioFallecimiento(datosAutor.anioFallecimiento());
-                autor = autorRepository.save(autor);
+    /**
+     * Búsqueda rápida por palabras en el índice en memoria (títulos, autores y,
+     * solo para libros recibidos desde el último arranque, materias); la última
+     * palabra funciona como prefijo. Si el índice está deshabilitado se usa la
+     * búsqueda de texto completo de la base de datos.
+     * @param consulta Palabras a buscar
+     * @param limite Cantidad máxima de resultados
+     * @return Libros encontrados, de más a menos descargados
+     */
+    public List<Libro> buscarEnIndice(String consulta, int limite) {
+        if (!indiceLibros.isHabilitado()) {
+            return buscarLibrosPorPalabraClave(consulta, PageRequest.of(0, limite)).getContent();
+        }
+
+        long[] ids = indiceLibros.buscar(consulta, limite);
+        List<Long> orden = Arrays.stream(ids).boxed().toList();
+        Map<Long, Libro> porId = libroRepository.findAllById(orden).stream()
+                .collect(Collectors.toMap(Libro::getId, Function.identity()));
+        return orden.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Guarda una lista de libros en transacciones de tamaño hibernate.jdbc.batch_size,
+     * con las mismas garantías que la ingesta del catálogo:
+     * - Los autores sin id se resuelven por nombre con ResolutorAutores, que solo crea
+     *   los que no existen (índice único sobre LOWER(nombre))
+     * - Los libros con gutendxId se escriben con el upsert por gutendx_id: los que ya
+     *   existen actualizan sus descargas en lugar de violar la restricción única
+     * - Los libros sin gutendxId se persisten y Hibernate los envía en lotes JDBC
+     * Cada lote se limpia del contexto de persistencia, de modo que la memoria no
+     * crece con la lista.
+     * @param libros Libros a guardar
+     * @return Cantidad de libros nuevos guardados
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int guardarLibrosEnLotes(List<Libro> libros) {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        int guardados = 0;
+
+        for (int inicio = 0; inicio < libros.size(); inicio += tamanoLote) {
+            List<Libro> lote = libros.subList(inicio, Math.min(inicio + tamanoLote, libros.size()));
+            Integer nuevos = transaccion.execute(status -> guardarLote(lote));
+            guardados += nuevos != null ? nuevos : 0;
+        }
+        return guardados;
+    }
+
+    /**
+     * Guarda un lote de guardarLibrosEnLotes; debe ejecutarse dentro de una transacción
+     * @return Cantidad de libros nuevos
+     */
+    private int guardarLote(List<Libro> lote) {
+        // Nombre del autor de cada libro antes de sustituirlo por el resuelto, que puede ser una referencia
+        Map<Libro, AutorDTO> autorPorLibro = new IdentityHashMap<>();
+        for (Libro libro : lote) {
+            Autor autor = libro.getAutor();
+            if (autor != null && autor.getId() == null) {
+                autorPorLibro.put(libro, new AutorDTO(autor.getNombre(), autor.getAnoNacimiento(), autor.getAnoFallecimiento()));
             }
         }
+        Map<String, Autor> autores = resolutorAutores.resolverAutores(autorPorLibro.values());
+
+        Map<Libro, String> nombres = new IdentityHashMap<>();
+        List<Libro> conGutendxId = new ArrayList<>();
+        List<Libro> nuevos = new ArrayList<>();
+        for (Libro libro : lote) {
+            AutorDTO autor = autorPorLibro.get(libro);
+            if (autor != null) {
+                libro.setAutor(autores.get(ResolutorAutores.normalizar(autor.getNombreLimpio())));
+                nombres.put(libro, autor.getNombreLimpio());
+            } else if (libro.getAutor() != null) {
+                nombres.put(libro, libro.getAutor().getNombre());
+            }
 
-        // Crear libro
-        Libro libro = new Libro();
-        libro.setTitulo(datosLibro.titulo());
-        libro.setAutor(autor);
-
-        // Procesar idioma (tomar el primero)
-        if (!datosLibro.idiomas().isEmpty()) {
-            String codigoIdioma = datosLibro.idiomas().get(0);
-            try {
-                Idioma idioma = Idioma.fromCodigo(codigoIdioma);
-                libro.setIdioma(idioma);
-            } catch (IllegalArgumentException e) {
-                libro.setIdioma(Idioma.OTROS);
+            if (libro.getGutendxId() != null) {
+                conGutendxId.add(libro);
+            } else {
+                entityManager.persist(libro);
+                nuevos.add(libro);
             }
-        } else {
-            libro.setIdioma(Idioma.OTROS);
         }
+        entityManager.flush();
+
+        List<ResultadoUpsert> resultados = libroRepository.upsertPorGutendxId(conGutendxId);
+        // Solo los libros insertados reciben id
+        conGutendxId.stream().filter(libro -> libro.getId() != null).forEach(nuevos::add);
+
+        estadisticasCatalogo.registrarLibros(nuevos);
+        estadisticasCatalogo.registrarDescargasActualizadas(resultados);
+        indiceLibros.actualizarDescargasAlConfirmar(resultados);
+        indiceLibros.indexarAlConfirmar(nuevos.stream()
+                .map(libro -> new IndiceInvertidoLibros.Documento(libro.getId(), libro.getTitulo(),
+                        nombres.get(libro), List.of(), libro.getNumeroDescargas() != null ? libro.getNumeroDescargas() : 0L))
+                .toList());
+        entityManager.clear();
+        return nuevos.size();
+    }
 
-        libro.setNumeroDescargas(datosLibro.numeroDescargas());
+    /**
+     * Aplica la acción a cada libro del flujo y lo desvincula al terminar.
+     * Los autores se comparten entre libros, así que se liberan vaciando el
+     * contexto cada TAMANO_FETCH filas.
+     */
+    private long recorrer(Stream<Libro> libros, Consumer<Libro> accion) {
+        int vaciarCada = Integer.parseInt(LibroRepository.TAMANO_FETCH);
+        long[] recorridos = {0};
+        libros.forEach(libro -> {
+            accion.accept(libro);
+            entityManager.detach(libro);
+            if (++recorridos[0] % vaciarCada == 0) {
+                entityManager.clear();
+            }
+        });
+        return recorridos[0];
+    }
+
+    /**
+     * Crea un objeto Libro a partir de los datos de la API
+     * @param datosLibro Datos del libro desde la API
+     * @return Objeto Libro creado, con su ID de Gutendx
+     */
+    private Libro crearLibroDesdeDto(LibroDTO datosLibro) {
+        // Buscar el autor en la caché o en la base de datos, creándolo si no existe
+        Autor autor = resolutorAutores.resolverAutor(datosLibro.getPrimerAutor());
 
-        return libro;
+        // Mismo mapeo que la ingesta masiva (idioma: el primero de la lista)
+        return IngestaCatalogoService.crearLibroDesdeDto(datosLibro, autor);
     }
 }
@@ -0,0 +1,130 @@
+package com.literalura.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Limita el número de peticiones asíncronas en curso por host.
+ *
+ * No bloquea hilos: cuando se alcanza el límite, la petición queda en
+ * una cola y se lanza en el ejecutor en cuanto termina otra del mismo host.
+ */
+public class LimitadorPorHost {
+
+    private final int maximoPorHost;
+    private final Executor executor;
+    private final ConcurrentMap<String, Cupo> cupos = new ConcurrentHashMap<>();
+
+    public LimitadorPorHost(int maximoPorHost, Executor executor) {
+        if (maximoPorHost < 1) {
+            throw new IllegalArgumentException("El máximo de peticiones por host debe ser positivo");
+        }
+        this.maximoPorHost = maximoPorHost;
+        this.executor = executor;
+    }
+
+    /**
+     * Ejecuta la tarea respetando el límite del host
+     * @param host Host destino de la petición
+     * @param tarea Función que lanza la petición
+     * @return Future que se completa con el resultado de la tarea
+     */
+    public <T> CompletableFuture<T> ejecutar(String host, Supplier<CompletableFuture<T>> tarea) {
+        Cupo cupo = cupos.computeIfAbsent(host, h -> new Cupo());
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+
+        Runnable lanzar = () -> {
+            CompletableFuture<T> enCurso;
+            try {
+                enCurso = tarea.get();
+            } catch (RuntimeException e) {
+                enCurso = CompletableFuture.failedFuture(e);
+            }
+            enCurso.whenComplete((valor, error) -> {
+                cupo.liberar();
+                if (error != null) {
+                    resultado.completeExceptionally(error);
+                } else {
+                    resultado.complete(valor);
+                }
+            });
+        };
+
+        if (cupo.reservarOEncolar(lanzar)) {
+            lanzar.run();
+        }
+        return resultado;
+    }
+
+    /**
+     * Peticiones en curso para un host
+     * @param host Host a consultar
+     * @return Cantidad de peticiones en curso
+     */
+    public int getEnCurso(String host) {
+        Cupo cupo = cupos.get(host);
+        return cupo != null ? cupo.getEnCurso() : 0;
+    }
+
+    /**
+     * Peticiones esperando turno para un host
+     * @param host Host a consultar
+     * @return Cantidad de peticiones en espera
+     */
+    public int getEnEspera(String host) {
+        Cupo cupo = cupos.get(host);
+        return cupo != null ? cupo.getEnEspera() : 0;
+    }
+
+    private final class Cupo {
+
+        private final Deque<Runnable> pendientes = new ArrayDeque<>();
+        private int enCurso;
+
+        /**
+         * @return true si hay cupo y el llamador debe lanzar la tarea
+         */
+        synchronized boolean reservarOEncolar(Runnable tarea) {
+            if (enCurso < maximoPorHost) {
+                enCurso++;
+                return true;
+            }
+            pendientes.addLast(tarea);
+            return false;
+        }
+
+        void liberar() {
+            Runnable siguiente;
+            synchronized (this) {
+                siguiente = pendientes.pollFirst();
+                if (siguiente == null) {
+                    enCurso--;
+                }
+            }
+            // El cupo pasa a la siguiente tarea en espera, que se lanza en otro hilo: si se
+            // ejecutara aquí, una tarea que termina al instante (copia en caché, fallo inmediato)
+            // encadenaría las siguientes en esta pila y retrasaría el resultado de la actual
+            if (siguiente != null) {
+                try {
+                    executor.execute(siguiente);
+                } catch (RejectedExecutionException e) {
+                    siguiente.run();
+                }
+            }
+        }
+
+        synchronized int getEnCurso() {
+            return enCurso;
+        }
+
+        synchronized int getEnEspera() {
+            return pendientes.size();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.literalura.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador de tasa con cubeta de fichas
+ *
+ * La cubeta se recarga a peticionesPorSegundo fichas por segundo hasta
+ * un máximo de rafaga. Cada petición reserva una ficha; si no quedan, la
+ * reserva deja la cubeta en negativo y devuelve cuánto debe esperar el
+ * llamador, así las peticiones siguientes se ordenan detrás sin bloquear
+ * ningún hilo dentro del limitador.
+ */
+public class LimitadorTasa {
+
+    private final boolean habilitado;
+    private final double fichasPorNano;
+    private final double rafaga;
+
+    private double fichas;
+    private long ultimaRecargaNanos;
+
+    private final LongAdder reservas = new LongAdder();
+    private final LongAdder retrasadas = new LongAdder();
+    private final LongAdder esperaTotalNanos = new LongAdder();
+    private final AtomicLong esperaMaximaNanos = new AtomicLong();
+
+    /**
+     * @param peticionesPorSegundo Tasa sostenida; 0 o menos deshabilita el límite
+     * @param rafaga Fichas máximas acumuladas
+     */
+    public LimitadorTasa(double peticionesPorSegundo, int rafaga) {
+        this.habilitado = peticionesPorSegundo > 0;
+        this.fichasPorNano = peticionesPorSegundo / TimeUnit.SECONDS.toNanos(1);
+        this.rafaga = Math.max(1, rafaga);
+        this.fichas = this.rafaga;
+        this.ultimaRecargaNanos = System.nanoTime();
+    }
+
+    /**
+     * Reserva una ficha
+     * @return Nanosegundos que hay que esperar antes de enviar la petición (0 si puede enviarse ya)
+     */
+    public long reservar() {
+        reservas.increment();
+        if (!habilitado) {
+            return 0;
+        }
+        long espera;
+        synchronized (this) {
+            long ahora = System.nanoTime();
+            fichas = Math.min(rafaga, fichas + (ahora - ultimaRecargaNanos) * fichasPorNano);
+            ultimaRecargaNanos = ahora;
+            fichas -= 1;
+            espera = fichas >= 0 ? 0 : (long) Math.ceil(-fichas / fichasPorNano);
+        }
+        if (espera > 0) {
+            retrasadas.increment();
+            esperaTotalNanos.add(espera);
+            esperaMaximaNanos.accumulateAndGet(espera, Math::max);
+        }
+        return espera;
+    }
+
+    public long getReservas() {
+        return reservas.sum();
+    }
+
+    public long getRetrasadas() {
+        return retrasadas.sum();
+    }
+
+    /**
+     * Espera media por petición, contando las que no esperaron
+     * @return Milisegundos de espera promedio
+     */
+    public double getEsperaPromedioMillis() {
+        long total = reservas.sum();
+        return total > 0 ? esperaTotalNanos.sum() / (total * 1_000_000.0) : 0.0;
+    }
+
+    public long getEsperaTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(esperaTotalNanos.sum());
+    }
+
+    public long getEsperaMaximaMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(esperaMaximaNanos.get());
+    }
+
+    /**
+     * Información resumida para mostrar en consola
+     * @return String con las esperas del limitador
+     */
+    public String getResumen() {
+        return String.format("Limitador: %d peticiones, %d retrasadas, espera media %.2f ms (máx %d ms)",
+                getReservas(), getRetrasadas(), getEsperaPromedioMillis(), getEsperaMaximaMillis());
+    }
+}
@@ -0,0 +1,209 @@
+package com.literalura.service;
+
+import com.literalura.model.dto.RespuestaAPI;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Pipeline de ingesta en tres etapas conectadas por colas acotadas:
+ * descarga HTTP, conversión JSON a RespuestaAPI y persistencia JPA.
+ *
+ * Cada etapa tiene su propio número de hilos. Como las colas tienen
+ * capacidad fija, cuando la persistencia se retrasa las colas se llenan
+ * y los hilos de descarga quedan bloqueados en lugar de acumular páginas
+ * en memoria.
+ */
+public class PipelineIngesta {
+
+    private static final long ESPERA_COLA_MS = 200;
+
+    /**
+     * Página en tránsito entre etapas
+     */
+    public record Pagina(int numero, String json, RespuestaAPI respuesta) {
+
+        private static final Pagina FIN = new Pagina(-1, null, null);
+
+        boolean esFin() {
+            return this == FIN;
+        }
+    }
+
+    private final IntFunction<String> descargar;
+    private final Function<String, RespuestaAPI> convertir;
+    private final ToIntFunction<Pagina> persistir;
+    private final int hilosDescarga;
+    private final int hilosConversion;
+    private final int hilosPersistencia;
+
+    private final BlockingQueue<Pagina> colaConversion;
+    private final BlockingQueue<Pagina> colaPersistencia;
+    private final AtomicBoolean abortado = new AtomicBoolean();
+    private final AtomicReference<RuntimeException> error = new AtomicReference<>();
+
+    /**
+     * @param descargar Obtiene el JSON de un número de página
+     * @param convertir Convierte el JSON en RespuestaAPI
+     * @param persistir Guarda una página y devuelve los libros nuevos
+     * @param hilosDescarga Hilos de la etapa de descarga
+     * @param hilosConversion Hilos de la etapa de conversión
+     * @param hilosPersistencia Hilos de la etapa de persistencia
+     * @param capacidadCola Capacidad de cada cola entre etapas
+     */
+    public PipelineIngesta(IntFunction<String> descargar,
+                           Function<String, RespuestaAPI> convertir,
+                           ToIntFunction<Pagina> persistir,
+                           int hilosDescarga, int hilosConversion, int hilosPersistencia,
+                           int capacidadCola) {
+        if (hilosDescarga < 1 || hilosConversion < 1 || hilosPersistencia < 1 || capacidadCola < 1) {
+            throw new IllegalArgumentException("Los hilos por etapa y la capacidad de cola deben ser positivos");
+        }
+        this.descargar = descargar;
+        this.convertir = convertir;
+        this.persistir = persistir;
+        this.hilosDescarga = hilosDescarga;
+        this.hilosConversion = hilosConversion;
+        this.hilosPersistencia = hilosPersistencia;
+        this.colaConversion = new ArrayBlockingQueue<>(capacidadCola);
+        this.colaPersistencia = new ArrayBlockingQueue<>(capacidadCola);
+    }
+
+    /**
+     * Procesa las páginas del rango indicado y bloquea hasta terminar
+     * @param primera Primera página ya descargada y convertida (entra directo a persistencia)
+     * @param ultimaPagina Número de la última página a procesar (inclusive)
+     * @param estadisticas Métricas a actualizar
+     */
+    public void ejecutar(Pagina primera, int ultimaPagina, EstadisticasIngesta estadisticas) {
+        AtomicInteger siguiente = new AtomicInteger(primera.numero() + 1);
+        CountDownLatch descargasTerminadas = new CountDownLatch(hilosDescarga);
+        CountDownLatch conversionesTerminadas = new CountDownLatch(hilosConversion);
+        CountDownLatch persistenciasTerminadas = new CountDownLatch(hilosPersistencia);
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                hilosDescarga + hilosConversion + hilosPersistencia);
+        try {
+            poner(colaPersistencia, primera);
+
+            for (int i = 0; i < hilosDescarga; i++) {
+                executor.execute(() -> etapa(descargasTerminadas, () -> {
+                    int numero;
+                    while (!abortado.get() && (numero = siguiente.getAndIncrement()) <= ultimaPagina) {
+                        poner(colaConversion, new Pagina(numero, descargar.apply(numero), null));
+                    }
+                }));
+            }
+
+            for (int i = 0; i < hilosConversion; i++) {
+                executor.execute(() -> etapa(conversionesTerminadas, () -> {
+                    Pagina pagina;
+                    while ((pagina = tomar(colaConversion)) != null && !pagina.esFin()) {
+                        poner(colaPersistencia, new Pagina(pagina.numero(), null, convertir.apply(pagina.json())));
+                    }
+                }));
+            }
+
+            for (int i = 0; i < hilosPersistencia; i++) {
+                executor.execute(() -> etapa(persistenciasTerminadas, () -> {
+                    Pagina pagina;
+                    while ((pagina = tomar(colaPersistencia)) != null && !pagina.esFin()) {
+                        int guardados = persistir.applyAsInt(pagina);
+                        estadisticas.registrarPagina(pagina.respuesta().getCantidadResultados(), guardados);
+                    }
+                }));
+            }
+
+            // Cierre ordenado: cada etapa recibe un marcador de fin por hilo
+            // cuando la etapa anterior terminó por completo
+            descargasTerminadas.await();
+            for (int i = 0; i < hilosConversion; i++) {
+                poner(colaConversion, Pagina.FIN);
+            }
+            conversionesTerminadas.await();
+            for (int i = 0; i < hilosPersistencia; i++) {
+                poner(colaPersistencia, Pagina.FIN);
+            }
+            persistenciasTerminadas.await();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortar(new RuntimeException("Ingesta interrumpida: " + e.getMessage(), e));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (error.get() != null) {
+            throw error.get();
+        }
+    }
+
+    /**
+     * Tamaño actual de las colas entre etapas, útil para detectar el cuello de botella
+     * @return Lista con [cola de conversión, cola de persistencia]
+     */
+    public List<Integer> getTamanoColas() {
+        return List.of(colaConversion.size(), colaPersistencia.size());
+    }
+
+    private void etapa(CountDownLatch terminado, Runnable trabajo) {
+        try {
+            trabajo.run();
+        } catch (RuntimeException e) {
+            abortar(e);
+        } finally {
+            terminado.countDown();
+        }
+    }
+
+    private void abortar(RuntimeException e) {
+        error.compareAndSet(null, e);
+        abortado.set(true);
+    }
+
+    /**
+     * Inserta en la cola esperando mientras esté llena (contrapresión),
+     * salvo que el pipeline haya sido abortado
+     */
+    private void poner(BlockingQueue<Pagina> cola, Pagina pagina) {
+        try {
+            while (!abortado.get()) {
+                if (cola.offer(pagina, ESPERA_COLA_MS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortar(new RuntimeException("Ingesta interrumpida: " + e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Extrae de la cola o devuelve null si el pipeline fue abortado
+     */
+    private Pagina tomar(BlockingQueue<Pagina> cola) {
+        try {
+            while (!abortado.get()) {
+                Pagina pagina = cola.poll(ESPERA_COLA_MS, TimeUnit.MILLISECONDS);
+                if (pagina != null) {
+                    return pagina;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortar(new RuntimeException("Ingesta interrumpida: " + e.getMessage(), e));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,166 @@
+package com.literalura.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Política de resiliencia de las peticiones a la API Gutendx
+ *
+ * Reúne la configuración y el estado que ConsumoApi aplica a cada petición:
+ * - Reintentos de errores de red y respuestas 5xx con espera exponencial
+ *   y jitter completo (aleatoria entre 0 y base * 2^intento, con tope)
+ * - Interruptor de circuito que falla rápido mientras la API no responde
+ * - Peticiones de cobertura opcionales: si la primera no respondió tras el
+ *   percentil configurado de las latencias recientes se lanza una segunda
+ *   y se usa la que termine antes
+ */
+@Component
+public class ResilienciaApi {
+
+    private static final int MUESTRAS_LATENCIA = 256;
+
+    private final int maxIntentos;
+    private final long esperaBaseMillis;
+    private final long esperaMaximaMillis;
+    private final long timeoutIntentoMillis;
+    private final boolean coberturaHabilitada;
+    private final double percentilCobertura;
+    private final long retrasoMinimoCoberturaMillis;
+    private final int muestrasMinimasCobertura;
+    private final InterruptorCircuito interruptor;
+
+    // Ventana circular con las últimas latencias en milisegundos
+    private final long[] latencias = new long[MUESTRAS_LATENCIA];
+    private int siguienteLatencia;
+    private int muestrasLatencia;
+
+    private final LongAdder reintentos = new LongAdder();
+    private final LongAdder coberturasLanzadas = new LongAdder();
+    private final LongAdder coberturasGanadoras = new LongAdder();
+
+    public ResilienciaApi(
+            @Value("${literalura.api.reintentos.max-intentos:3}") int maxIntentos,
+            @Value("${literalura.api.reintentos.espera-base-ms:200}") long esperaBaseMillis,
+            @Value("${literalura.api.reintentos.espera-maxima-ms:5000}") long esperaMaximaMillis,
+            @Value("${literalura.api.timeout-intento-ms:${literalura.api.gutendx.timeout:30000}}") long timeoutIntentoMillis,
+            @Value("${literalura.api.circuito.umbral-fallos:5}") int umbralFallos,
+            @Value("${literalura.api.circuito.apertura-ms:30000}") long aperturaMillis,
+            @Value("${literalura.api.cobertura.habilitada:false}") boolean coberturaHabilitada,
+            @Value("${literalura.api.cobertura.percentil:0.95}") double percentilCobertura,
+            @Value("${literalura.api.cobertura.retraso-minimo-ms:50}") long retrasoMinimoCoberturaMillis,
+            @Value("${literalura.api.cobertura.muestras-minimas:20}") int muestrasMinimasCobertura) {
+        if (maxIntentos < 1) {
+            throw new IllegalArgumentException("El número de intentos debe ser positivo");
+        }
+        this.maxIntentos = maxIntentos;
+        this.esperaBaseMillis = esperaBaseMillis;
+        this.esperaMaximaMillis = esperaMaximaMillis;
+        this.timeoutIntentoMillis = timeoutIntentoMillis;
+        this.coberturaHabilitada = coberturaHabilitada;
+        this.percentilCobertura = percentilCobertura;
+        this.retrasoMinimoCoberturaMillis = retrasoMinimoCoberturaMillis;
+        this.muestrasMinimasCobertura = Math.min(muestrasMinimasCobertura, MUESTRAS_LATENCIA);
+        this.interruptor = new InterruptorCircuito(umbralFallos, aperturaMillis);
+    }
+
+    /**
+     * Indica si tras un intento fallido se puede hacer otro
+     * @param intento Número del intento que falló, empezando en 1
+     * @return true si quedan intentos
+     */
+    public boolean puedeReintentar(int intento) {
+        return intento < maxIntentos;
+    }
+
+    /**
+     * Espera antes del siguiente intento: aleatoria entre 0 y
+     * min(esperaMaxima, esperaBase * 2^(intento - 1))
+     * @param intento Número del intento que falló, empezando en 1
+     * @return Milisegundos de espera
+     */
+    public long calcularEspera(int intento) {
+        reintentos.increment();
+        long tope = esperaBaseMillis << Math.min(intento - 1, 20);
+        tope = Math.min(esperaMaximaMillis, tope);
+        return tope > 0 ? ThreadLocalRandom.current().nextLong(tope + 1) : 0;
+    }
+
+    /**
+     * Retraso tras el que lanzar la petición de cobertura
+     * @return Milisegundos, o -1 si no debe lanzarse
+     */
+    public long retrasoCobertura() {
+        if (!coberturaHabilitada) {
+            return -1;
+        }
+        long[] copia;
+        synchronized (latencias) {
+            if (muestrasLatencia < muestrasMinimasCobertura) {
+                return -1;
+            }
+            copia = Arrays.copyOf(latencias, muestrasLatencia);
+        }
+        Arrays.sort(copia);
+        int posicion = (int) Math.ceil(percentilCobertura * copia.length) - 1;
+        long percentil = copia[Math.max(0, Math.min(copia.length - 1, posicion))];
+        return Math.max(retrasoMinimoCoberturaMillis, percentil);
+    }
+
+    /**
+     * Registra la latencia de una respuesta recibida
+     * @param nanos Tiempo hasta recibir la respuesta
+     */
+    public void registrarLatencia(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        synchronized (latencias) {
+            latencias[siguienteLatencia] = millis;
+            siguienteLatencia = (siguienteLatencia + 1) % latencias.length;
+            if (muestrasLatencia < latencias.length) {
+                muestrasLatencia++;
+            }
+        }
+    }
+
+    public void registrarCoberturaLanzada() {
+        coberturasLanzadas.increment();
+    }
+
+    public void registrarCoberturaGanadora() {
+        coberturasGanadoras.increment();
+    }
+
+    public InterruptorCircuito getInterruptor() {
+        return interruptor;
+    }
+
+    public long getTimeoutIntentoMillis() {
+        return timeoutIntentoMillis;
+    }
+
+    public long getReintentos() {
+        return reintentos.sum();
+    }
+
+    public long getCoberturasLanzadas() {
+        return coberturasLanzadas.sum();
+    }
+
+    public long getCoberturasGanadoras() {
+        return coberturasGanadoras.sum();
+    }
+
+    /**
+     * Información resumida para mostrar en consola
+     * @return String con el estado de la política
+     */
+    public String getResumen() {
+        return String.format("API: circuito %s (%d aperturas, %d rechazadas), %d reintentos, %d coberturas (%d ganadoras)",
+                interruptor.getEstado(), interruptor.getAperturas(), interruptor.getRechazadas(),
+                getReintentos(), getCoberturasLanzadas(), getCoberturasGanadoras());
+    }
+}
@@ -0,0 +1,215 @@
+package com.literalura.service;
+
+import com.literalura.model.dto.AutorDTO;
+import com.literalura.model.entity.Autor;
+import com.literalura.repository.AutorRepository;
+import com.literalura.repository.AutorUpsertRepository.AutoresInsertados;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resuelve autores por nombre evitando consultas repetidas a la base de datos
+ *
+ * Mantiene una caché acotada (LRU) de nombre normalizado a id de Autor,
+ * precargada al arrancar. Los aciertos se convierten en referencias JPA
+ * sin SELECT; los fallos de un lote se buscan con una única consulta y
+ * los autores que faltan se crean juntos con un INSERT ... ON CONFLICT,
+ * así que dos hilos o ingestas que crean el mismo autor no lo duplican.
+ */
+@Service
+public class ResolutorAutores {
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private IndiceVidaAutores indiceVida;
+
+    @Autowired
+    private EstadisticasCatalogo estadisticasCatalogo;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<String, Long> cache;
+    private final int capacidad;
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    public ResolutorAutores(@Value("${literalura.autores.cache.capacidad:10000}") int capacidad) {
+        this.capacidad = capacidad;
+        this.cache = new LinkedHashMap<>(Math.min(capacidad, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > ResolutorAutores.this.capacidad;
+            }
+        };
+    }
+
+    /**
+     * Precarga la caché con los autores más recientes al arrancar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        List<Object[]> filas = autorRepository.findIdYNombre(PageRequest.of(0, capacidad));
+        synchronized (cache) {
+            // Se recorren del más antiguo al más reciente para que estos queden como los últimos usados
+            for (int i = filas.size() - 1; i >= 0; i--) {
+                cache.put(normalizar((String) filas.get(i)[1]), (Long) filas.get(i)[0]);
+            }
+        }
+        System.out.println("Caché de autores precargada con " + filas.size() + " autores");
+    }
+
+    /**
+     * Resuelve un autor, creándolo si no existe
+     * @param autorDTO Datos del autor desde la API
+     * @return Autor persistido o referencia a él
+     */
+    @Transactional
+    public Autor resolverAutor(AutorDTO autorDTO) {
+        return resolverAutores(List.of(autorDTO)).get(normalizar(autorDTO.getNombreLimpio()));
+    }
+
+    /**
+     * Resuelve o crea un conjunto de autores con, como máximo, una consulta
+     * y un lote de INSERT por llamada
+     * @param autores Autores a resolver (pueden repetirse)
+     * @return Mapa de nombre normalizado a Autor
+     */
+    @Transactional
+    public Map<String, Autor> resolverAutores(Collection<AutorDTO> autores) {
+        Map<String, Autor> resueltos = new HashMap<>();
+        Map<String, AutorDTO> pendientes = new HashMap<>();
+
+        for (AutorDTO dto : autores) {
+            String clave = normalizar(dto.getNombreLimpio());
+            if (resueltos.containsKey(clave) || pendientes.containsKey(clave)) {
+                continue;
+            }
+            Long id;
+            synchronized (cache) {
+                id = cache.get(clave);
+            }
+            if (id != null) {
+                aciertos.increment();
+                resueltos.put(clave, entityManager.getReference(Autor.class, id));
+            } else {
+                fallos.increment();
+                pendientes.put(clave, dto);
+            }
+        }
+
+        if (pendientes.isEmpty()) {
+            return resueltos;
+        }
+
+        Map<String, Long> nuevosEnCache = new HashMap<>();
+        for (Autor existente : autorRepository.findByNombreNormalizadoIn(pendientes.keySet())) {
+            String clave = normalizar(existente.getNombre());
+            if (pendientes.remove(clave) != null) {
+                resueltos.put(clave, existente);
+                nuevosEnCache.put(clave, existente.getId());
+            }
+        }
+
+        List<Autor> nuevos = new ArrayList<>(pendientes.size());
+        for (AutorDTO dto : pendientes.values()) {
+            nuevos.add(new Autor(recortar(dto.getNombreLimpio()), dto.getAnoNacimiento(), dto.getAnoFallecimiento()));
+        }
+        // Un autor creado a la vez por otra transacción vuelve en existentes y no se cuenta aquí
+        AutoresInsertados insercion = autorRepository.insertarSiNoExisten(nuevos);
+        List<Autor> creados = insercion.insertados();
+        List<Autor> guardados = new ArrayList<>(creados);
+        guardados.addAll(insercion.existentes());
+        for (Autor autor : guardados) {
+            String clave = normalizar(autor.getNombre());
+            resueltos.putIfAbsent(clave, autor);
+            nuevosEnCache.put(clave, autor.getId());
+        }
+
+        registrarEnCache(nuevosEnCache);
+        estadisticasCatalogo.registrarAutores(creados);
+        indiceVida.agregarAlConfirmar(creados);
+        return resueltos;
+    }
+
+    /**
+     * Elimina la caché completa (por ejemplo, tras borrar autores)
+     */
+    public void invalidar() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Normaliza un nombre de autor para usarlo como clave
+     * @param nombre Nombre del autor
+     * @return Nombre recortado, sin espacios repetidos y en minúsculas
+     */
+    public static String normalizar(String nombre) {
+        if (nombre == null) return "";
+        return recortar(nombre.trim().replaceAll("\\s+", " ")).toLowerCase(Locale.ROOT);
+    }
+
+    public int getTamano() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    /**
+     * Los ids nuevos solo entran en la caché si la transacción se confirma,
+     * para no guardar ids de autores que un rollback ha descartado
+     */
+    private void registrarEnCache(Map<String, Long> nuevos) {
+        if (nuevos.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    synchronized (cache) {
+                        cache.putAll(nuevos);
+                    }
+                }
+            });
+        } else {
+            synchronized (cache) {
+                cache.putAll(nuevos);
+            }
+        }
+    }
+
+    private static String recortar(String nombre) {
+        return nombre.length() > 255 ? nombre.substring(0, 255) : nombre;
+    }
+}
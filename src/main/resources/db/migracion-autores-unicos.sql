@@ -0,0 +1,23 @@
+-- Fusiona los autores repetidos (mismo nombre sin distinguir mayúsculas) antes de crear
+-- el índice único uq_autores_nombre_lower. Se conserva el autor con menor id y sus libros
+-- pasan a él. Ejecutar una sola vez antes de arrancar la nueva versión; después conviene
+-- llamar a EstadisticasCatalogo.reconstruir() para recalcular los contadores por siglo.
+
+BEGIN;
+
+CREATE TEMPORARY TABLE autores_repetidos ON COMMIT DROP AS
+SELECT id, MIN(id) OVER (PARTITION BY LOWER(nombre)) AS conservar
+FROM autores;
+
+UPDATE libros AS l SET autor_id = r.conservar
+FROM autores_repetidos AS r
+WHERE l.autor_id = r.id AND r.id <> r.conservar;
+
+DELETE FROM autores AS a
+USING autores_repetidos AS r
+WHERE a.id = r.id AND r.id <> r.conservar;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_autores_nombre_lower ON autores (LOWER(nombre));
+DROP INDEX IF EXISTS idx_autores_nombre_lower;
+
+COMMIT;
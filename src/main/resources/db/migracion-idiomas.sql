@@ -0,0 +1,35 @@
+-- Migración de libros.idioma de texto libre (varchar) a código compacto (smallint).
+-- Los valores corresponden a los ids fijos del enum Idioma; los no reconocidos pasan a 0 (otros).
+-- Ejecutar una sola vez antes de arrancar la nueva versión: ddl-auto=update no cambia
+-- el tipo de una columna existente.
+
+ALTER TABLE libros ALTER COLUMN idioma TYPE smallint USING
+    CASE
+        WHEN lower(trim(idioma)) IN ('otros') THEN 0
+        WHEN lower(trim(idioma)) IN ('es', 'spanish', 'español') THEN 1
+        WHEN lower(trim(idioma)) IN ('en', 'english', 'inglés') THEN 2
+        WHEN lower(trim(idioma)) IN ('fr', 'french', 'francés') THEN 3
+        WHEN lower(trim(idioma)) IN ('de', 'german', 'alemán') THEN 4
+        WHEN lower(trim(idioma)) IN ('pt', 'portuguese', 'portugués') THEN 5
+        WHEN lower(trim(idioma)) IN ('it', 'italian', 'italiano') THEN 6
+        WHEN lower(trim(idioma)) IN ('la', 'latin', 'latín') THEN 7
+        WHEN lower(trim(idioma)) IN ('nl', 'dutch') THEN 8
+        WHEN lower(trim(idioma)) IN ('fi', 'finnish') THEN 9
+        WHEN lower(trim(idioma)) IN ('sv', 'swedish') THEN 10
+        WHEN lower(trim(idioma)) IN ('da', 'danish') THEN 11
+        WHEN lower(trim(idioma)) IN ('no', 'norwegian') THEN 12
+        WHEN lower(trim(idioma)) IN ('ru', 'russian') THEN 13
+        WHEN lower(trim(idioma)) IN ('zh', 'chinese') THEN 14
+        WHEN lower(trim(idioma)) IN ('ja', 'japanese') THEN 15
+        WHEN lower(trim(idioma)) IN ('el', 'greek') THEN 16
+        WHEN lower(trim(idioma)) IN ('hu', 'hungarian') THEN 17
+        WHEN lower(trim(idioma)) IN ('pl', 'polish') THEN 18
+        WHEN lower(trim(idioma)) IN ('ca', 'catalan') THEN 19
+        WHEN lower(trim(idioma)) IN ('eo', 'esperanto') THEN 20
+        ELSE 0
+    END;
+
+CREATE INDEX IF NOT EXISTS idx_libros_idioma ON libros (idioma);
+
+-- Con la tabla vacía, EstadisticasCatalogo las reconstruye al arrancar con los códigos normalizados
+DELETE FROM estadisticas_catalogo;
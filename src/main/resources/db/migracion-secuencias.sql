@@ -0,0 +1,11 @@
+-- Migración de IDENTITY a secuencias para bases de datos creadas con versiones anteriores.
+-- Con ddl-auto=update Hibernate crea las secuencias, pero empezarían en 1 y chocarían
+-- con los ids existentes. Ejecutar una sola vez antes de arrancar la nueva versión.
+-- El optimizador "pooled" de Hibernate usa el valor de la secuencia como extremo
+-- superior del bloque, por eso se deja en MAX(id) + 50.
+
+CREATE SEQUENCE IF NOT EXISTS autores_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS libros_seq INCREMENT BY 50;
+
+SELECT setval('autores_seq', COALESCE((SELECT MAX(id) FROM autores), 0) + 50, false);
+SELECT setval('libros_seq', COALESCE((SELECT MAX(id) FROM libros), 0) + 50, false);
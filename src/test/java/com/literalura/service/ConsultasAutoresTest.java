@@ -0,0 +1,99 @@
+package com.literalura.service;
+
+import com.literalura.model.Idioma;
+import com.literalura.model.entity.Autor;
+import com.literalura.model.entity.Libro;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que listar autores no dispara una consulta por autor (N+1) ni carga el catálogo,
+ * con la caché de segundo nivel habilitada como en producción.
+ * Usa PostgreSQL con Testcontainers (se omite sin Docker); cada prueba se revierte al terminar.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional
+class ConsultasAutoresTest {
+
+    private static final int AUTORES = 1_000;
+    private static final int LIBROS_POR_AUTOR = 2;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void baseDeDatos(DynamicPropertyRegistry registro) {
+        registro.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registro.add("spring.datasource.username", POSTGRES::getUsername);
+        registro.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private AutorService autorService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void crearAutores() {
+        for (int i = 0; i < AUTORES; i++) {
+            Autor autor = new Autor("Autor Prueba " + i, 1800 + i % 200, 1900 + i % 100);
+            entityManager.persist(autor);
+            for (int j = 0; j < LIBROS_POR_AUTOR; j++) {
+                long gutendxId = -((long) i * LIBROS_POR_AUTOR + j + 1);
+                entityManager.persist(new Libro("Libro " + i + "-" + j, Idioma.ES, (long) j, autor, gutendxId));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    @Test
+    void listarTodosLosAutoresNoCargaSusLibros() {
+        List<Autor> autores = autorService.obtenerTodosLosAutores();
+
+        assertTrue(autores.size() >= AUTORES);
+        assertTrue(autores.stream().noneMatch(autor -> Hibernate.isInitialized(autor.getLibros())));
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void listarAutoresConLibrosUsaUnaSolaConsulta() {
+        List<Autor> autores = autorService.obtenerAutoresConLibros();
+        long librosCargados = autores.stream()
+                .filter(autor -> autor.getNombre().startsWith("Autor Prueba "))
+                .mapToLong(autor -> autor.getLibros().size())
+                .sum();
+
+        assertEquals((long) AUTORES * LIBROS_POR_AUTOR, librosCargados);
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,150 @@
+package com.literalura.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.literalura.config.JacksonConfig;
+import com.literalura.model.dto.FormatosLibro;
+import com.literalura.model.dto.LibroDTO;
+import com.literalura.model.dto.RespuestaAPI;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que los ObjectReader en caché de ConvierteDatos convierten una página
+ * de Gutendx igual que un ObjectMapper por defecto, y que el atributo
+ * FormatosLibro.OMITIR deja los formatos vacíos sin tocar el resto del libro.
+ * La medición de rendimiento está en el módulo benchmarks (JMH).
+ */
+class ConvierteDatosTest {
+
+    private static final int LIBROS_POR_PAGINA = 32;
+
+    // Solo para comparar resultados como árboles JSON
+    private final ObjectMapper comparador = new ObjectMapper();
+
+    @Test
+    void lectorEnCacheConvierteIgualQueObjectMapperPorDefecto() throws Exception {
+        String pagina = crearPagina();
+
+        RespuestaAPI esperada = new ObjectMapper().readValue(pagina, RespuestaAPI.class);
+        RespuestaAPI obtenida = new ConvierteDatos(crearMapper(false)).obtenerDatos(pagina, RespuestaAPI.class);
+
+        assertEquals(LIBROS_POR_PAGINA, obtenida.getCantidadResultados());
+        assertEquals(75_000, obtenida.getTotalResultados());
+        assertEquals(arbol(esperada), arbol(obtenida));
+
+        LibroDTO primero = obtenida.getPrimerLibro();
+        assertEquals(1L, primero.getId());
+        assertEquals("Libro de prueba 1", primero.getTitulo());
+        assertEquals("Autor, Nombre 1", primero.getAutores().get(0).getNombre());
+        assertEquals(List.of("en"), primero.getIdiomas());
+        assertEquals(99_999L, primero.getNumeroDescargas());
+        assertEquals(7, primero.getFormatos().size());
+        assertEquals("https://www.gutenberg.org/ebooks/1.epub3.images", primero.getFormatos().getEpub());
+    }
+
+    @Test
+    void blackbirdConvierteIgualQueSinModulo() {
+        String pagina = crearPagina();
+
+        RespuestaAPI sinModulo = new ConvierteDatos(crearMapper(false)).obtenerDatos(pagina, RespuestaAPI.class);
+        RespuestaAPI conBlackbird = new ConvierteDatos(crearMapper(true)).obtenerDatos(pagina, RespuestaAPI.class);
+
+        assertEquals(arbol(sinModulo), arbol(conBlackbird));
+    }
+
+    @Test
+    void paginaSinFormatosOmiteSoloLosFormatos() {
+        String pagina = crearPagina();
+        ConvierteDatos conversor = new ConvierteDatos(crearMapper(false));
+
+        RespuestaAPI completa = conversor.obtenerDatos(pagina, RespuestaAPI.class);
+        RespuestaAPI sinFormatos = conversor.obtenerPaginaSinFormatos(pagina);
+
+        assertEquals(LIBROS_POR_PAGINA, sinFormatos.getCantidadResultados());
+        assertTrue(sinFormatos.getResultados().stream().allMatch(libro -> libro.getFormatos().isEmpty()));
+        assertTrue(completa.getResultados().stream().noneMatch(libro -> libro.getFormatos().isEmpty()));
+        assertNotEquals(arbol(completa), arbol(sinFormatos));
+
+        // Quitando los formatos de la conversión completa, el resto coincide
+        completa.getResultados().forEach(libro -> libro.setFormatos(null));
+        assertEquals(arbol(completa), arbol(sinFormatos));
+    }
+
+    @Test
+    void omitirFormatosNoAfectaAlLectorSinAtributo() throws Exception {
+        ObjectMapper mapper = crearMapper(false);
+        String pagina = crearPagina();
+
+        RespuestaAPI omitida = mapper.readerFor(RespuestaAPI.class)
+                .withAttribute(FormatosLibro.OMITIR, Boolean.TRUE)
+                .readValue(pagina);
+        RespuestaAPI normal = mapper.readerFor(RespuestaAPI.class).readValue(pagina);
+
+        assertTrue(omitida.getPrimerLibro().getFormatos().isEmpty());
+        assertFalse(normal.getPrimerLibro().getFormatos().isEmpty());
+    }
+
+    @Test
+    void lecturaEnStreamingEntregaLosMismosLibrosSinFormatos() {
+        String pagina = crearPagina();
+        ConvierteDatos conversor = new ConvierteDatos(crearMapper(false));
+        List<LibroDTO> libros = new ArrayList<>();
+
+        RespuestaAPI cabecera = conversor.leerPaginaEnStreaming(
+                new ByteArrayInputStream(pagina.getBytes(StandardCharsets.UTF_8)), libros::add);
+        RespuestaAPI sinFormatos = conversor.obtenerPaginaSinFormatos(pagina);
+
+        assertEquals(75_000, cabecera.getTotalResultados());
+        assertEquals("https://gutendx.com/books/?page=2", cabecera.getSiguientePagina());
+        assertTrue(cabecera.getResultados().isEmpty());
+        assertEquals(arbol(sinFormatos.getResultados()), arbol(libros));
+    }
+
+    private JsonNode arbol(Object valor) {
+        return comparador.valueToTree(valor);
+    }
+
+    private ObjectMapper crearMapper(boolean blackbird) {
+        JacksonConfig config = new JacksonConfig();
+        ReflectionTestUtils.setField(config, "blackbird", blackbird);
+        return config.objectMapper();
+    }
+
+    private String crearPagina() {
+        StringBuilder json = new StringBuilder("{\"count\":75000,\"next\":\"https://gutendx.com/books/?page=2\",")
+                .append("\"previous\":null,\"results\":[");
+        for (int i = 1; i <= LIBROS_POR_PAGINA; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                    .append(",\"title\":\"Libro de prueba ").append(i).append("\"")
+                    .append(",\"authors\":[{\"name\":\"Autor, Nombre ").append(i)
+                    .append("\",\"birth_year\":1800,\"death_year\":1870}]")
+                    .append(",\"translators\":[],\"subjects\":[\"Fiction\",\"Adventure stories\"]")
+                    .append(",\"bookshelves\":[\"Best Books Ever Listings\"]")
+                    .append(",\"languages\":[\"en\"],\"copyright\":false,\"media_type\":\"Text\"")
+                    .append(",\"formats\":{")
+                    .append("\"text/html\":\"https://www.gutenberg.org/ebooks/").append(i).append(".html.images\",")
+                    .append("\"application/epub+zip\":\"https://www.gutenberg.org/ebooks/").append(i).append(".epub3.images\",")
+                    .append("\"application/x-mobipocket-ebook\":\"https://www.gutenberg.org/ebooks/").append(i).append(".kf8.images\",")
+                    .append("\"text/plain; charset=us-ascii\":\"https://www.gutenberg.org/ebooks/").append(i).append(".txt.utf-8\",")
+                    .append("\"application/rdf+xml\":\"https://www.gutenberg.org/ebooks/").append(i).append(".rdf\",")
+                    .append("\"image/jpeg\":\"https://www.gutenberg.org/cache/epub/").append(i).append("/pg").append(i).append(".cover.medium.jpg\",")
+                    .append("\"application/octet-stream\":\"https://www.gutenberg.org/cache/epub/").append(i).append("/pg").append(i).append("-h.zip\"}")
+                    .append(",\"download_count\":").append(100_000 - i).append('}');
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -0,0 +1,198 @@
+package com.literalura.service;
+
+import com.literalura.model.Idioma;
+import com.literalura.model.entity.EstadisticaCatalogo;
+import com.literalura.repository.EstadisticaCatalogoRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que los contadores incrementales de EstadisticasCatalogo coinciden con
+ * reconstruir() después de una ingesta en paralelo y de un refresco de descargas.
+ * Gutendx se sustituye por un servidor HTTP local con un catálogo de PAGINAS páginas.
+ * Usa PostgreSQL con Testcontainers (se omite sin Docker).
+ */
+@SpringBootTest(properties = {
+        "literalura.api.cache.habilitada=false",
+        "literalura.descargas.actualizacion.pausa-entre-peticiones-ms=0",
+        "literalura.ingesta.pipeline.hilos-persistencia=2"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class EstadisticasCatalogoTest {
+
+    private static final int PAGINAS = 3;
+    private static final int LIBROS_POR_PAGINA = 10;
+    private static final String[] IDIOMAS = {"en", "es", "fr"};
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    // Descargas que devuelve el servidor por gutendx_id; el refresco cambia algunas
+    private static final Map<Integer, Long> DESCARGAS = new ConcurrentHashMap<>();
+    private static final HttpServer GUTENDX = arrancarGutendx();
+
+    @DynamicPropertySource
+    static void configuracion(DynamicPropertyRegistry registro) {
+        registro.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registro.add("spring.datasource.username", POSTGRES::getUsername);
+        registro.add("spring.datasource.password", POSTGRES::getPassword);
+        registro.add("literalura.api.gutendx.base-url", EstadisticasCatalogoTest::urlBase);
+    }
+
+    @AfterAll
+    static void detenerGutendx() {
+        GUTENDX.stop(0);
+    }
+
+    @Autowired
+    private IngestaCatalogoService ingestaCatalogoService;
+
+    @Autowired
+    private ActualizacionDescargasService actualizacionDescargasService;
+
+    @Autowired
+    private EstadisticasCatalogo estadisticasCatalogo;
+
+    @Autowired
+    private EstadisticaCatalogoRepository estadisticaRepository;
+
+    @Test
+    void contadoresIncrementalesCoincidenConReconstruir() {
+        ingestaCatalogoService.ingerirCatalogoEnParalelo(true);
+        assertEquals(PAGINAS * LIBROS_POR_PAGINA, estadisticasCatalogo.getTotalLibros());
+
+        // Sube las descargas de unos libros y baja las de otros
+        for (int id = 1; id <= PAGINAS * LIBROS_POR_PAGINA; id += 3) {
+            DESCARGAS.merge(id, id % 2 == 0 ? 250L : -5L, Long::sum);
+        }
+        ActualizacionDescargasService.ResultadoActualizacion resultado = actualizacionDescargasService.actualizar();
+        assertTrue(resultado.librosActualizados() > 0, resultado.getResumen());
+
+        Map<String, String> incrementales = contadores();
+        Map<String, String> guardados = filasGuardadas();
+
+        estadisticasCatalogo.reconstruir();
+
+        assertEquals(contadores(), incrementales);
+        assertEquals(filasGuardadas(), guardados);
+        assertEquals(descargasEsperadas(), estadisticasCatalogo.getTotalDescargas());
+    }
+
+    /**
+     * Contadores en memoria como texto, para comparar con un solo assertEquals
+     */
+    private Map<String, String> contadores() {
+        Map<String, String> contadores = new TreeMap<>();
+        for (Idioma idioma : Idioma.values()) {
+            long libros = estadisticasCatalogo.contarLibros(idioma);
+            if (libros > 0) {
+                contadores.put("idioma " + idioma, libros + " libros, " + estadisticasCatalogo.contarDescargas(idioma) + " descargas");
+            }
+        }
+        estadisticasCatalogo.getAutoresPorSiglo().forEach((siglo, autores) ->
+                contadores.put("siglo " + siglo, autores + " autores"));
+        return contadores;
+    }
+
+    private Map<String, String> filasGuardadas() {
+        Map<String, String> filas = new TreeMap<>();
+        for (EstadisticaCatalogo fila : estadisticaRepository.findAll()) {
+            if (fila.getCantidad() != 0 || fila.getDescargas() != 0) {
+                filas.put(fila.getTipo() + " " + fila.getClave(), fila.getCantidad() + "/" + fila.getDescargas());
+            }
+        }
+        return filas;
+    }
+
+    private static long descargasEsperadas() {
+        return DESCARGAS.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static String urlBase() {
+        return "http://localhost:" + GUTENDX.getAddress().getPort() + "/books/";
+    }
+
+    /**
+     * Servidor con las respuestas de Gutendx que usan la ingesta (?page=N) y el
+     * refresco de descargas (?ids=1,2,3)
+     */
+    private static HttpServer arrancarGutendx() {
+        for (int id = 1; id <= PAGINAS * LIBROS_POR_PAGINA; id++) {
+            DESCARGAS.put(id, 1_000L * id);
+        }
+        try {
+            HttpServer servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            servidor.createContext("/books/", EstadisticasCatalogoTest::responder);
+            servidor.start();
+            return servidor;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void responder(HttpExchange intercambio) throws IOException {
+        String consulta = intercambio.getRequestURI().getQuery();
+        StringBuilder resultados = new StringBuilder();
+        String siguiente = "null";
+        if (consulta != null && consulta.startsWith("ids=")) {
+            Arrays.stream(consulta.substring(4).split(","))
+                    .mapToInt(Integer::parseInt)
+                    .forEach(id -> agregarLibro(resultados, id));
+        } else {
+            int pagina = consulta != null && consulta.startsWith("page=") ? Integer.parseInt(consulta.substring(5)) : 1;
+            for (int id = (pagina - 1) * LIBROS_POR_PAGINA + 1; id <= Math.min(pagina, PAGINAS) * LIBROS_POR_PAGINA; id++) {
+                agregarLibro(resultados, id);
+            }
+            if (pagina < PAGINAS) {
+                siguiente = "\"" + urlBase() + "?page=" + (pagina + 1) + "\"";
+            }
+        }
+
+        byte[] cuerpo = ("{\"count\":" + PAGINAS * LIBROS_POR_PAGINA + ",\"next\":" + siguiente
+                + ",\"previous\":null,\"results\":[" + resultados + "]}").getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().add("Content-Type", "application/json");
+        intercambio.sendResponseHeaders(200, cuerpo.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(cuerpo);
+        }
+    }
+
+    /**
+     * Siete autores compartidos entre los libros, nacidos en siglos distintos
+     */
+    private static void agregarLibro(StringBuilder resultados, int id) {
+        if (!resultados.isEmpty()) {
+            resultados.append(',');
+        }
+        int autor = id % 7;
+        resultados.append("{\"id\":").append(id)
+                .append(",\"title\":\"Libro de estadísticas ").append(id).append('"')
+                .append(",\"authors\":[{\"name\":\"Autor Estadísticas ").append(autor)
+                .append("\",\"birth_year\":").append(1650 + autor * 60)
+                .append(",\"death_year\":").append(1710 + autor * 60).append("}]")
+                .append(",\"subjects\":[],\"languages\":[\"").append(IDIOMAS[id % IDIOMAS.length]).append("\"]")
+                .append(",\"formats\":{},\"download_count\":").append(DESCARGAS.get(id)).append('}');
+    }
+}
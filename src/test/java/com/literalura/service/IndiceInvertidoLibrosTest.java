@@ -0,0 +1,91 @@
+package com.literalura.service;
+
+import com.literalura.service.IndiceInvertidoLibros.Documento;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifica la tokenización, la unión de prefijos y el orden por descargas del
+ * índice invertido. No necesita contexto de Spring: sin transacción activa los
+ * documentos se indexan al momento.
+ */
+class IndiceInvertidoLibrosTest {
+
+    private IndiceInvertidoLibros indice;
+
+    @BeforeEach
+    void crearIndice() {
+        indice = new IndiceInvertidoLibros(true);
+        indice.indexar(List.of(
+                new Documento(1, "Don Quijote de la Mancha", "Cervantes Saavedra, Miguel de",
+                        List.of("Spain -- Fiction"), 500),
+                new Documento(2, "Cuentos de la Alhambra", "Irving, Washington",
+                        List.of("Granada (Spain) -- Fiction", "Grand tours"), 900),
+                new Documento(3, "Les Misérables", "Hugo, Victor", List.of(), 700),
+                new Documento(4, "Notre-Dame de Paris", "Hugo, Victor",
+                        List.of("Paris (France) -- Fiction"), 300),
+                new Documento(5, "Frankenstein", "Shelley, Mary", List.of("Science fiction"), 1_200)));
+    }
+
+    @Test
+    void tokenizaSinMayusculasNiAcentosNiSeparadores() {
+        assertArrayEquals(new long[]{3}, indice.buscar("MISERABLES", 10));
+        assertArrayEquals(new long[]{3}, indice.buscar("misérables", 10));
+        assertArrayEquals(new long[]{4}, indice.buscar("notre dame", 10));
+        assertArrayEquals(new long[]{1}, indice.buscar("saavedra, miguel", 10));
+    }
+
+    @Test
+    void ignoraTerminosDeUnaLetra() {
+        assertArrayEquals(new long[0], indice.buscar("a", 10));
+        assertArrayEquals(new long[]{1}, indice.buscar("quijote y", 10));
+    }
+
+    @Test
+    void todasLasPalabrasDebenAparecerYLaUltimaEsPrefijo() {
+        assertArrayEquals(new long[]{3, 4}, indice.buscar("victor hu", 10));
+        assertArrayEquals(new long[]{4}, indice.buscar("hugo par", 10));
+        // Solo la última palabra es prefijo
+        assertArrayEquals(new long[0], indice.buscar("hu victor", 10));
+    }
+
+    @Test
+    void prefijoUneVariosTerminosSinRepetirLibros() {
+        // "frankenstein" y "france"
+        assertArrayEquals(new long[]{5, 4}, indice.buscar("fr", 10));
+        // "granada" y "grand" son del mismo libro
+        assertArrayEquals(new long[]{2}, indice.buscar("gra", 10));
+    }
+
+    @Test
+    void devuelveLosKMasDescargadosEnOrden() {
+        assertArrayEquals(new long[]{5, 2, 1, 4}, indice.buscar("fiction", 10));
+        assertArrayEquals(new long[]{5, 2}, indice.buscar("fiction", 2));
+        assertArrayEquals(new long[0], indice.buscar("fiction", 0));
+    }
+
+    @Test
+    void actualizarDescargasCambiaElOrden() {
+        indice.actualizarDescargas(4, 2_000);
+        assertArrayEquals(new long[]{4, 3}, indice.buscar("hugo", 10));
+
+        // Volver a indexar un libro solo actualiza sus descargas
+        indice.indexar(List.of(new Documento(3, "Les Misérables", "Hugo, Victor", List.of(), 5_000)));
+        assertArrayEquals(new long[]{3, 4}, indice.buscar("hugo", 10));
+        assertEquals(5, indice.getDocumentos());
+    }
+
+    @Test
+    void indiceDeshabilitadoNoDevuelveResultados() {
+        IndiceInvertidoLibros deshabilitado = new IndiceInvertidoLibros(false);
+        deshabilitado.indexar(List.of(new Documento(1, "Frankenstein", "Shelley, Mary", List.of(), 1)));
+
+        assertArrayEquals(new long[0], deshabilitado.buscar("frankenstein", 10));
+        assertEquals(0, deshabilitado.getDocumentos());
+    }
+}
@@ -0,0 +1,124 @@
+package com.literalura.service;
+
+import com.literalura.model.entity.Autor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifica el árbol de segmentos y los árboles de Fenwick de IndiceVidaAutores contra
+ * Autor.estabaVivoEn, en especial en los años de nacimiento y fallecimiento, que
+ * cuentan como vivos. No necesita contexto de Spring: sin transacción activa los
+ * autores se agregan al momento.
+ */
+class IndiceVidaAutoresTest {
+
+    private final List<Autor> autores = List.of(
+            autor(1L, "Nace el año en que muere el autor 2", 1850, 1900),
+            autor(2L, "Muere el año en que nace el autor 1", 1800, 1850),
+            autor(3L, "Sigue vivo", 1900, null),
+            autor(4L, "Nace y muere el mismo año", 1820, 1820),
+            autor(5L, "Antes de Cristo", -500, -450),
+            autor(6L, "Sin año de nacimiento", null, 1830),
+            autor(7L, "Fuera del rango del índice", -9000, 2500));
+
+    private IndiceVidaAutores indice;
+
+    @BeforeEach
+    void crearIndice() {
+        indice = new IndiceVidaAutores(true);
+        indice.agregarAlConfirmar(autores);
+    }
+
+    @Test
+    void vivosEnCoincideConEstabaVivoEnCadaAno() {
+        for (int ano = -600; ano <= 2000; ano++) {
+            long[] esperados = vivosSegunEntidad(ano, ano);
+
+            assertArrayEquals(esperados, ordenados(indice.vivosEn(ano)), "año " + ano);
+            assertEquals(esperados.length, indice.contarVivosEn(ano), "año " + ano);
+        }
+    }
+
+    @Test
+    void anosDeNacimientoYFallecimientoCuentanComoVivos() {
+        assertArrayEquals(new long[]{1L, 2L, 7L}, ordenados(indice.vivosEn(1850)));
+        assertArrayEquals(new long[]{2L, 7L}, ordenados(indice.vivosEn(1800)));
+        assertArrayEquals(new long[]{7L}, ordenados(indice.vivosEn(1799)));
+        assertArrayEquals(new long[]{1L, 7L}, ordenados(indice.vivosEn(1851)));
+        assertArrayEquals(new long[]{1L, 3L, 7L}, ordenados(indice.vivosEn(1900)));
+        assertArrayEquals(new long[]{3L, 7L}, ordenados(indice.vivosEn(1901)));
+        assertArrayEquals(new long[]{2L, 4L, 7L}, ordenados(indice.vivosEn(1820)));
+        assertArrayEquals(new long[]{2L, 7L}, ordenados(indice.vivosEn(1821)));
+    }
+
+    @Test
+    void vivosEntreCoincideConEstabaVivoEnAlgunAnoDelRango() {
+        int[] anos = {-501, -500, -450, -449, 1799, 1800, 1819, 1820, 1821, 1849, 1850, 1851, 1899, 1900, 1901, 2000};
+        for (int inicio : anos) {
+            for (int fin : anos) {
+                if (inicio > fin) {
+                    continue;
+                }
+                long[] esperados = vivosSegunEntidad(inicio, fin);
+                String rango = "[" + inicio + ", " + fin + "]";
+
+                assertArrayEquals(esperados, ordenados(indice.vivosEntre(inicio, fin)), rango);
+                assertEquals(esperados.length, indice.contarVivosEntre(inicio, fin), rango);
+            }
+        }
+    }
+
+    @Test
+    void agregarDosVecesNoDuplicaAutores() {
+        indice.agregarAlConfirmar(autores);
+
+        assertEquals(6, indice.getAutores());
+        assertArrayEquals(new long[]{1L, 2L, 7L}, ordenados(indice.vivosEn(1850)));
+        assertEquals(3, indice.contarVivosEn(1850));
+    }
+
+    @Test
+    void rangoInvertidoSeRechaza() {
+        assertThrows(IllegalArgumentException.class, () -> indice.vivosEntre(1900, 1800));
+        assertThrows(IllegalArgumentException.class, () -> indice.contarVivosEntre(1900, 1800));
+    }
+
+    /**
+     * Ids de los autores vivos en algún año de [inicio, fin] según la entidad; los
+     * años fuera del rango del índice se recortan a sus extremos, así que el autor 7
+     * se comprueba solo dentro de los años consultados
+     */
+    private long[] vivosSegunEntidad(int inicio, int fin) {
+        return autores.stream()
+                .filter(autor -> {
+                    for (int ano = inicio; ano <= fin; ano++) {
+                        if (autor.estabaVivoEn(ano)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                })
+                .mapToLong(Autor::getId)
+                .sorted()
+                .toArray();
+    }
+
+    private static long[] ordenados(long[] ids) {
+        long[] copia = ids.clone();
+        Arrays.sort(copia);
+        return copia;
+    }
+
+    private static Autor autor(Long id, String nombre, Integer nacimiento, Integer fallecimiento) {
+        Autor autor = new Autor(nombre, nacimiento, fallecimiento);
+        autor.setId(id);
+        return autor;
+    }
+}
@@ -0,0 +1,161 @@
+package com.literalura.service;
+
+import com.literalura.model.Idioma;
+import com.literalura.model.entity.Autor;
+import com.literalura.model.entity.Libro;
+import com.literalura.repository.AutorRepository;
+import com.literalura.repository.LibroRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica la paginación por clave (keyset) de libros por descargas y de autores por
+ * nacimiento: recorrer todas las páginas devuelve cada fila una vez y en orden, con
+ * valores repetidos y nulos, y la consulta entra en el índice por la primera columna.
+ * Usa PostgreSQL con Testcontainers (se omite sin Docker); cada prueba se revierte al terminar.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional
+class PaginacionPorClaveTest {
+
+    private static final int AUTORES = 40;
+    private static final int LIBROS_POR_AUTOR = 3;
+    private static final int TAMANO_PAGINA = 7;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void baseDeDatos(DynamicPropertyRegistry registro) {
+        registro.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registro.add("spring.datasource.username", POSTGRES::getUsername);
+        registro.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private LibroService libroService;
+
+    @Autowired
+    private AutorService autorService;
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void crearCatalogo() {
+        for (int i = 0; i < AUTORES; i++) {
+            // Años repetidos y algunos desconocidos, que van al final
+            Integer nacimiento = i % 9 == 0 ? null : 1800 + i % 5;
+            Autor autor = new Autor("Autor Paginado " + i, nacimiento, null);
+            entityManager.persist(autor);
+            for (int j = 0; j < LIBROS_POR_AUTOR; j++) {
+                // Descargas repetidas y algunas nulas, que cuentan como 0
+                Long descargas = (i + j) % 7 == 0 ? null : (long) ((i * j) % 4) * 100;
+                long gutendxId = -((long) i * LIBROS_POR_AUTOR + j + 1);
+                entityManager.persist(new Libro("Libro " + i + "-" + j, Idioma.ES, descargas, autor, gutendxId));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void recorrerLibrosPorDescargasDevuelveCadaLibroUnaVezEnOrden() {
+        List<Long> esperados = libroRepository.findAll().stream()
+                .sorted(Comparator.comparingLong((Libro libro) -> descargas(libro)).reversed()
+                        .thenComparing(Libro::getId, Comparator.reverseOrder()))
+                .map(Libro::getId)
+                .toList();
+
+        List<Long> recorridos = new ArrayList<>();
+        Libro ultimo = null;
+        List<Libro> pagina;
+        while (!(pagina = libroService.obtenerLibrosPorDescargas(ultimo, TAMANO_PAGINA)).isEmpty()) {
+            assertTrue(pagina.size() <= TAMANO_PAGINA);
+            pagina.forEach(libro -> recorridos.add(libro.getId()));
+            ultimo = pagina.get(pagina.size() - 1);
+        }
+
+        assertEquals(esperados, recorridos);
+    }
+
+    @Test
+    void recorrerAutoresPorNacimientoDevuelveCadaAutorUnaVezEnOrden() {
+        List<Long> esperados = autorRepository.findAll().stream()
+                .sorted(Comparator.comparingInt((Autor autor) -> nacimiento(autor))
+                        .thenComparing(Autor::getId))
+                .map(Autor::getId)
+                .toList();
+
+        List<Long> recorridos = new ArrayList<>();
+        Autor ultimo = null;
+        List<Autor> pagina;
+        while (!(pagina = autorService.obtenerAutoresPorNacimiento(ultimo, TAMANO_PAGINA)).isEmpty()) {
+            assertTrue(pagina.size() <= TAMANO_PAGINA);
+            pagina.forEach(autor -> recorridos.add(autor.getId()));
+            ultimo = pagina.get(pagina.size() - 1);
+        }
+
+        assertEquals(esperados, recorridos);
+    }
+
+    @Test
+    void paginaSiguienteEntraEnLosIndicesPorLaPrimeraColumna() {
+        // Con pocas filas el planificador prefiere recorrer la tabla; así se ve si el índice es aplicable
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("SET LOCAL enable_seqscan = off");
+
+        String libros = plan(jdbc, "SELECT id FROM libros " +
+                "WHERE COALESCE(numero_descargas, 0) <= 200 " +
+                "AND (COALESCE(numero_descargas, 0) < 200 OR (COALESCE(numero_descargas, 0) = 200 AND id < 50)) " +
+                "ORDER BY COALESCE(numero_descargas, 0) DESC, id DESC LIMIT 7");
+        String autores = plan(jdbc, "SELECT id FROM autores " +
+                "WHERE COALESCE(ano_nacimiento, 999999) >= 1802 " +
+                "AND (COALESCE(ano_nacimiento, 999999) > 1802 OR (COALESCE(ano_nacimiento, 999999) = 1802 AND id > 10)) " +
+                "ORDER BY COALESCE(ano_nacimiento, 999999), id LIMIT 7");
+
+        assertTrue(libros.contains("idx_libros_descargas_id") && libros.contains("Index Cond"), libros);
+        assertTrue(autores.contains("idx_autores_nacimiento_id") && autores.contains("Index Cond"), autores);
+    }
+
+    private String plan(JdbcTemplate jdbc, String sql) {
+        return String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    private static long descargas(Libro libro) {
+        return libro.getNumeroDescargas() != null ? libro.getNumeroDescargas() : 0L;
+    }
+
+    private static int nacimiento(Autor autor) {
+        return autor.getAnoNacimiento() != null ? autor.getAnoNacimiento() : 999999;
+    }
+}